@@ -2,7 +2,10 @@ package api;
 
 import org.yaml.snakeyaml.Yaml;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class APIConfigManager {
 
@@ -11,6 +14,8 @@ public class APIConfigManager {
     private Map<String, Object> apiEndpointConfig;
     private String currentEnvironment;
     private String currentProject;
+    // 线程级环境覆盖，用于多环境并发对比
+    private final ThreadLocal<String> threadEnvironment = new ThreadLocal<>();
 
     // 私有构造函数，调用loadConfigs()加载配置
     private APIConfigManager() {
@@ -53,12 +58,40 @@ public class APIConfigManager {
         this.currentEnvironment = environment;
     }
 
+    // 在当前线程上以指定环境执行，其他线程仍使用全局环境
+    public <T> T withEnvironment(String environment, Supplier<T> action) {
+        if (!apiEndpointConfig.containsKey(environment)) {
+            throw new IllegalArgumentException("Invalid environment: " + environment);
+        }
+        String previous = threadEnvironment.get();
+        threadEnvironment.set(environment);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                threadEnvironment.remove();
+            } else {
+                threadEnvironment.set(previous);
+            }
+        }
+    }
+
+    // 获取配置中定义的所有环境名称
+    public Set<String> getEnvironments() {
+        return Collections.unmodifiableSet(apiEndpointConfig.keySet());
+    }
+
     // 设置项目名称
     public void setProject(String project) {
         this.currentProject = project;
         loadConfigs();
     }
 
+    // 重新加载当前项目的配置文件（配置文件修改后调用）
+    public void reload() {
+        loadConfigs();
+    }
+
     // 获取API端点URL
     public String getEndpointUrl(String key) {
         return getEndpointProperty(key, "url");
@@ -69,6 +102,50 @@ public class APIConfigManager {
         return getEndpointProperty(key, "method");
     }
 
+    // 获取API端点的完整配置
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getEndpointConfig(String key) {
+        checkEnvironmentSet();
+        Map<String, Object> endpoint = (Map<String, Object>) getEndpointsForEnvironment().get(key);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("Endpoint not found for key: " + key);
+        }
+        return endpoint;
+    }
+
+    // 获取主机级别的配置（如限流），未配置时返回空Map
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getHostConfig(String host) {
+        checkEnvironmentSet();
+        Map<String, Object> environmentConfig = (Map<String, Object>) apiEndpointConfig.get(environment());
+        Map<String, Object> hosts = (Map<String, Object>) environmentConfig.get("hosts");
+        if (hosts == null || !hosts.containsKey(host)) {
+            return Collections.emptyMap();
+        }
+        return (Map<String, Object>) hosts.get(host);
+    }
+
+    // 获取环境级别的配置段（如retry, circuitBreaker），未配置时返回空Map
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getEnvironmentSection(String section) {
+        checkEnvironmentSet();
+        Map<String, Object> environmentConfig = (Map<String, Object>) apiEndpointConfig.get(environment());
+        Object value = environmentConfig.get(section);
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    // 读取配置中的数值，未配置时返回默认值
+    public static Number getNumber(Map<String, Object> config, String key, Number defaultValue) {
+        Object value = config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Number)) {
+            throw new TestException.ConfigurationException(key + " must be a number but was: " + value);
+        }
+        return (Number) value;
+    }
+
     // 从配置中获取具体的属性（如url, method）
     private String getEndpointProperty(String key, String property) {
         checkEnvironmentSet();
@@ -84,14 +161,14 @@ public class APIConfigManager {
 
     // 获取当前环境的所有端点
     private Map<String, Object> getEndpointsForEnvironment() {
-        Map<String, Object> environmentConfig = (Map<String, Object>) apiEndpointConfig.get(currentEnvironment);
+        Map<String, Object> environmentConfig = (Map<String, Object>) apiEndpointConfig.get(environment());
         return (Map<String, Object>) environmentConfig.get("endpoints");
     }
 
     // 获取当前环境
     public String getCurrentEnvironment() {
         checkEnvironmentSet();
-        return currentEnvironment;
+        return environment();
     }
 
     // 获取当前项目
@@ -100,9 +177,15 @@ public class APIConfigManager {
         return currentProject;
     }
 
+    // 当前线程生效的环境：线程级覆盖优先于全局环境
+    private String environment() {
+        String environment = threadEnvironment.get();
+        return environment != null ? environment : currentEnvironment;
+    }
+
     // 检查环境是否设置
     private void checkEnvironmentSet() {
-        if (currentEnvironment == null) {
+        if (environment() == null) {
             throw new IllegalStateException("Environment not set. Call setEnvironment() before accessing configurations.");
         }
     }
@@ -1,36 +1,51 @@
 package api;
 
+import api.model.PreparedRequest;
 import api.model.TestContext;
+import api.util.PooledBuffer;
 import api.util.TestDataGenerator;
 import io.restassured.RestAssured;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.response.Response;
 import io.restassured.http.Method;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class APIRequestBuilder {
     private static final Logger logger = LoggerFactory.getLogger(APIRequestBuilder.class);
+    private static final int LOGGED_BODY_BYTES = 8 * 1024;
     private final APIConfigManager APIConfigManager;
+    private final RequestThrottle requestThrottle;
     private RequestSpecification request;
     private Method method;
+    private String endpointKey;
     private String endpoint;
     private Map<String, String> queryParams;
     private Map<String, String> pathParams;
     private String bodyTemplateKey;
     private String headersTemplateKey;
     private Map<String, String> headers;
-    private String body;
+    private PooledBuffer body;
     private Map<String, String> bodyOverride;
     private Map<String, String> headerOverride;
     private boolean relaxedHttps = false;
+    private String requestFingerprint;
+    private boolean shared;
+    private long sharedWaitMs;
 
     public APIRequestBuilder(APIConfigManager APIConfigManager) {
         this.APIConfigManager = APIConfigManager;
+        this.requestThrottle = new RequestThrottle(APIConfigManager);
         this.request = RestAssured.given();
         this.queryParams = new HashMap<>();
         this.pathParams = new HashMap<>();
@@ -40,6 +55,7 @@ public class APIRequestBuilder {
     }
 
     public APIRequestBuilder setEndpoint(String endpointKey) {
+        this.endpointKey = endpointKey;
         this.endpoint = APIConfigManager.getEndpointUrl(endpointKey);
         this.method = Method.valueOf(APIConfigManager.getEndpointMethod(endpointKey).toUpperCase());
         logger.debug("Set endpoint: {} with method: {}", this.endpoint, this.method);
@@ -85,9 +101,7 @@ public class APIRequestBuilder {
         return this;
     }
 
-    private void processParams() {
-        Map<String, String> savedFields = TestContext.getInstance().getAllDataAsString();
-
+    private void processParams(Map<String, String> savedFields) {
         queryParams.replaceAll((key, value) ->
                 TestDataGenerator.generateDynamicData(value, savedFields));
 
@@ -95,12 +109,18 @@ public class APIRequestBuilder {
                 TestDataGenerator.generateDynamicData(value, savedFields));
     }
 
-    private void buildRequestBody() {
+    private void buildRequestBody(Map<String, String> savedFields) {
         if (bodyTemplateKey != null) {
             try {
                 logger.debug("Building request body using template: {} and overrides {}", bodyTemplateKey, bodyOverride);
-                body = APIRequestTemplateProcessor.renderTemplate(bodyTemplateKey, bodyOverride);
-                request.body(body);
+                PooledBuffer buffer = PooledBuffer.acquire();
+                try {
+                    APIRequestTemplateProcessor.renderTemplate(bodyTemplateKey, bodyOverride, savedFields, buffer);
+                } catch (RuntimeException e) {
+                    buffer.release();
+                    throw e;
+                }
+                body = buffer;
             } catch (Exception e) {
                 logger.error("Failed to build request body", e);
                 throw new TestException.RequestPreparationException("Failed to build request body", e);
@@ -108,13 +128,12 @@ public class APIRequestBuilder {
         }
     }
 
-    private void buildRequestHeaders() {
+    private void buildRequestHeaders(Map<String, String> savedFields) {
         if (headersTemplateKey != null) {
             try {
                 logger.debug("Building request headers using template: {} and overrides {}", headersTemplateKey, headerOverride);
-                String headersString = APIRequestTemplateProcessor.renderTemplate(headersTemplateKey, headerOverride);
+                String headersString = APIRequestTemplateProcessor.renderTemplate(headersTemplateKey, headerOverride, savedFields);
                 headers = APIRequestTemplateProcessor.parseHeaderString(headersString);
-                request.headers(headers);
             } catch (Exception e) {
                 logger.error("Failed to build request headers", e);
                 throw new TestException.RequestPreparationException("Failed to build request headers", e);
@@ -122,28 +141,176 @@ public class APIRequestBuilder {
         }
     }
 
+    /**
+     * SHA-256 of the last sent request's method, URL, parameters, headers and body.
+     */
+    public String getRequestFingerprint() {
+        return requestFingerprint;
+    }
+
+    /**
+     * Whether the last sent request got the response of an identical request already in flight
+     * instead of its own call. See {@link RequestCoalescer}.
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * How long the last shared request waited for the response of the call it joined.
+     */
+    public long getSharedWaitMs() {
+        return sharedWaitMs;
+    }
+
     public Response execute() {
+        return send(prepare(TestContext.getInstance().getAllDataAsString()));
+    }
+
+    /**
+     * Renders the templates and expands the variables with the given saved fields without
+     * sending anything.
+     */
+    public PreparedRequest prepare(Map<String, String> savedFields) {
         if (endpoint == null || method == null) {
             throw new TestException.RequestPreparationException("Endpoint or method not set");
         }
 
+        buildRequestBody(savedFields);
+        buildRequestHeaders(savedFields);
+        processParams(savedFields); // Process the query and path parameters before sending the request
+        return new PreparedRequest(endpointKey, endpoint, method, body, headers, queryParams, pathParams);
+    }
+
+    public Response send(PreparedRequest prepared) {
+        endpointKey = prepared.getEndpointKey();
+        endpoint = prepared.getUrl();
+        method = prepared.getMethod();
+        body = prepared.getBody();
+        headers = prepared.getHeaders();
+        queryParams = prepared.getQueryParams();
+        pathParams = prepared.getPathParams();
+
         if (relaxedHttps) {
             RestAssured.useRelaxedHTTPSValidation();
             logger.warn("Using relaxed HTTPS validation. This should only be used for testing purposes.");
         }
 
-        buildRequestBody();
-        buildRequestHeaders();
-        processParams(); // Process the query and path parameters before sending the request
-
+        if (headers != null) {
+            request.headers(headers);
+        }
         request.queryParams(queryParams);
         request.pathParams(pathParams);
 
         logRequest();
+        requestFingerprint = fingerprint();
+        shared = false;
 
         logger.info("Executing {} request to {}", method, endpoint);
-        Response response = request.request(method, endpoint);
-        return response;
+        try {
+            if (RequestCoalescer.isCoalescable(APIConfigManager, endpointKey, method)) {
+                long start = System.nanoTime();
+                shared = true;
+                Response response = RequestCoalescer.execute(endpointKey, requestFingerprint, () -> {
+                    shared = false;
+                    return sendWithRetry();
+                });
+                if (shared) {
+                    sharedWaitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                return response;
+            }
+            return sendWithRetry();
+        } finally {
+            if (body != null) {
+                body.release();
+            }
+        }
+    }
+
+    private Response sendWithRetry() {
+        String host = RequestThrottle.getHostKey(endpoint);
+        CircuitBreaker circuitBreaker = CircuitBreaker.forHost(APIConfigManager, host);
+        RetryPolicy retryPolicy = RetryPolicy.forEndpoint(APIConfigManager, endpointKey, method);
+        for (int attempt = 1; ; attempt++) {
+            circuitBreaker.checkAllowed();
+            if (body != null) {
+                // The rendered bytes are streamed from the pooled buffer, afresh for every attempt
+                request.body(body.inputStream());
+            }
+            Response response;
+            try {
+                RequestThrottle.Permit permit = requestThrottle.acquire(endpointKey, endpoint);
+                LiveMetrics.requestStarted(host);
+                long start = System.nanoTime();
+                try {
+                    response = request.request(method, endpoint);
+                } finally {
+                    LiveMetrics.requestFinished(endpointKey, host, System.nanoTime() - start);
+                    permit.close();
+                }
+            } catch (Exception e) {
+                // RestAssured rethrows connection failures as undeclared IOExceptions
+                if (!(e instanceof IOException)) {
+                    circuitBreaker.recordIgnored();
+                    throw e instanceof RuntimeException ? (RuntimeException) e
+                            : new TestException.RequestExecutionException(method + " " + endpoint + " failed", e);
+                }
+                circuitBreaker.recordFailure();
+                if (!retryPolicy.shouldRetry(attempt, e)) {
+                    throw new TestException.RequestExecutionException(
+                            String.format("%s %s failed after %d attempt(s)", method, endpoint, attempt), e);
+                }
+                backOff(attempt, retryPolicy, e.toString());
+                continue;
+            }
+
+            int statusCode = response.getStatusCode();
+            if (retryPolicy.isRetryableStatus(statusCode)) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            if (!retryPolicy.shouldRetry(attempt, statusCode)) {
+                return response;
+            }
+            backOff(attempt, retryPolicy, "status " + statusCode);
+        }
+    }
+
+    // Identifies byte-identical requests: method, URL, parameters, headers and body
+    private String fingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder head = new StringBuilder()
+                    .append(method).append(' ').append(endpoint).append('\n')
+                    .append(new TreeMap<>(pathParams)).append('\n')
+                    .append(new TreeMap<>(queryParams)).append('\n')
+                    .append(headers == null ? "" : new TreeMap<>(headers)).append('\n');
+            digest.update(head.toString().getBytes(StandardCharsets.UTF_8));
+            if (body != null) {
+                body.update(digest);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void backOff(int attempt, RetryPolicy retryPolicy, String reason) {
+        long delay = retryPolicy.getBackoffMillis(attempt);
+        logger.warn("Attempt {}/{} of {} {} failed with {}, retrying in {} ms",
+                attempt, retryPolicy.getMaxAttempts(), method, endpoint, reason, delay);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestException.RequestExecutionException("Interrupted while retrying " + endpoint, e);
+        }
     }
 
     private void logRequest() {
@@ -153,6 +320,6 @@ public class APIRequestBuilder {
         logger.info("Query Parameters: {}", queryParams);
         logger.info("Path Parameters: {}", pathParams);
         logger.info("Headers: {}", headers);
-        logger.info("Body: {}", body);
+        logger.info("Body: {}", body == null ? null : body.preview(LOGGED_BODY_BYTES));
     }
 }
\ No newline at end of file
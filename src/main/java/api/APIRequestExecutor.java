@@ -2,8 +2,12 @@ package api;
 
 import api.model.APIResponse;
 import api.model.APITestCase;
+import api.model.PreparedRequest;
+import api.model.TestContext;
 import api.util.Utils;
 
+import java.util.Map;
+
 public class APIRequestExecutor {
     private final APIConfigManager APIConfigManager;
 
@@ -12,12 +16,24 @@ public class APIRequestExecutor {
     }
 
     public APIResponse prepareAndSendRequest(APITestCase testCase) {
-        APIRequestBuilder requestBuilder = createRequestBuilder(testCase);
-        APIResponse response = new APIResponse(requestBuilder.execute());
+        PreparedRequest prepared = RequestPipeline.take(testCase);
+        if (prepared == null) {
+            prepared = prepare(testCase, TestContext.getInstance().getAllDataAsString());
+        }
+        APIRequestBuilder builder = new APIRequestBuilder(APIConfigManager).setRelaxedHTTPSValidation();
+        APIResponse response = new APIResponse(builder.send(prepared));
+        response.setRequestFingerprint(builder.getRequestFingerprint());
+        if (builder.isShared()) {
+            response.markShared(builder.getSharedWaitMs());
+        }
         response.logResponse();
         return response;
     }
 
+    public PreparedRequest prepare(APITestCase testCase, Map<String, String> savedFields) {
+        return createRequestBuilder(testCase).prepare(savedFields);
+    }
+
     private APIRequestBuilder createRequestBuilder(APITestCase testCase) {
         return new APIRequestBuilder(APIConfigManager)
                 .setEndpoint(testCase.getEndpointKey())
@@ -8,8 +8,8 @@ import freemarker.template.TemplateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.io.StringWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +27,13 @@ public class APIRequestTemplateProcessor {
         configuration.setClassForTemplateLoading(APIRequestTemplateProcessor.class, "/templates/" + project);
     }
 
+    /**
+     * Drops parsed templates so edited template files are read again on next use.
+     */
+    public static void clearCache() {
+        configuration.clearTemplateCache();
+    }
+
     private APIRequestTemplateProcessor() {
         // Private constructor to prevent instantiation
     }
@@ -40,32 +47,96 @@ public class APIRequestTemplateProcessor {
      * @throws TestException if template rendering fails
      */
     public static String renderTemplate(String templateName, Map<String, String> data) throws TestException {
+        return renderTemplate(templateName, data, TestContext.getInstance().getAllDataAsString());
+    }
+
+    /**
+     * Renders a template like {@link #renderTemplate(String, Map)} with the given saved fields,
+     * so it can run on a thread other than the test case's.
+     *
+     * @param templateName The name of the template to render
+     * @param data         A map containing the data to be used in the template
+     * @param savedFields  The saved fields available to {@code ${TCID.field}} variables
+     * @return The rendered template as a string
+     * @throws TestException if template rendering fails
+     */
+    public static String renderTemplate(String templateName, Map<String, String> data, Map<String, String> savedFields) throws TestException {
         if (templateName == null || templateName.trim().isEmpty()) {
             logger.warn("Template name is null or empty, returning empty string");
             return ""; // Return an empty string
         }
 
         try (StringWriter writer = new StringWriter()) {
-            Template template = configuration.getTemplate(templateName);
-            Map<String, Object> dynamicData = new HashMap<>();
+            process(templateName, data, savedFields, writer);
+            return writer.toString();
+        } catch (IOException e) {
+            logger.error("Failed to render template: {}", templateName, e);
+            throw new TestException("Template rendering failed", e);
+        }
+    }
 
-            // Get saved fields from TestContext
-            Map<String, String> savedFields = TestContext.getInstance().getAllDataAsString();
+    /**
+     * Renders a template as UTF-8 straight into {@code out}, without building a String first.
+     *
+     * @param templateName The name of the template to render
+     * @param data         A map containing the data to be used in the template
+     * @param savedFields  The saved fields available to {@code ${TCID.field}} variables
+     * @param out          The stream receiving the rendered bytes; it is flushed, not closed
+     * @throws TestException if template rendering fails
+     */
+    public static void renderTemplate(String templateName, Map<String, String> data, Map<String, String> savedFields,
+                                      OutputStream out) throws TestException {
+        if (templateName == null || templateName.trim().isEmpty()) {
+            logger.warn("Template name is null or empty, rendering nothing");
+            return;
+        }
 
-            // Generate dynamic data for each entry in the data map
-            for (Map.Entry<String, String> entry : data.entrySet()) {
-                dynamicData.put(entry.getKey(), TestDataGenerator.generateDynamicData(entry.getValue(), savedFields));
-                logger.debug("Generated dynamic data for '{}': {}", entry.getKey(), dynamicData.get(entry.getKey()));
-            }
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            process(templateName, data, savedFields, writer);
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Failed to render template: {}", templateName, e);
+            throw new TestException("Template rendering failed", e);
+        }
+    }
+
+    private static void process(String templateName, Map<String, String> data, Map<String, String> savedFields,
+                                Writer writer) throws IOException {
+        Template template = configuration.getTemplate(templateName);
+        Map<String, Object> dynamicData = new HashMap<>();
 
+        // Generate dynamic data for each entry in the data map
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            dynamicData.put(entry.getKey(), TestDataGenerator.generateDynamicData(entry.getValue(), savedFields));
+            logger.debug("Generated dynamic data for '{}': {}", entry.getKey(), dynamicData.get(entry.getKey()));
+        }
+
+        try {
             template.process(dynamicData, writer);
-            String renderedContent = writer.toString();
-            logger.debug("Template '{}' rendered successfully", templateName);
-            return renderedContent;
-        } catch (IOException | TemplateException e) {
+        } catch (TemplateException e) {
             logger.error("Failed to render template: {}", templateName, e);
             throw new TestException("Template rendering failed", e);
         }
+        logger.debug("Template '{}' rendered successfully", templateName);
+    }
+
+    /**
+     * Returns the unrendered source of a template, or an empty string if it does not exist.
+     *
+     * @param templateName The name of the template
+     * @return The template source
+     */
+    public static String getTemplateSource(String templateName) {
+        if (templateName == null || templateName.trim().isEmpty()) {
+            return "";
+        }
+        try {
+            return configuration.getTemplate(templateName).toString();
+        } catch (IOException e) {
+            logger.warn("Template not found: {}", templateName);
+            return "";
+        }
     }
 
     /**
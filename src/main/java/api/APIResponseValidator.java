@@ -3,38 +3,106 @@ package api;
 
 import api.model.APIResponse;
 import api.model.APITestCase;
+import api.model.ValidationPlan.DynamicExpectation;
+import api.model.ValidationPlan.FieldCheck;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class APIResponseValidator {
     private final APITestCaseManager apiTestCaseManager;
     private final StandardResponseValidator standardResponseValidator;
     private final TestContextManager testContextManager;
     private final APIRequestExecutor apiRequestExecutor;
+    private final JsonSchemaValidator jsonSchemaValidator;
+    private final ResponseTimeValidator responseTimeValidator;
 
     public APIResponseValidator() {
         this.apiTestCaseManager = new APITestCaseManager();
         this.standardResponseValidator = new StandardResponseValidator();
         this.testContextManager = new TestContextManager();
         this.apiRequestExecutor = new APIRequestExecutor(APIConfigManager.getInstance());
+        this.jsonSchemaValidator = new JsonSchemaValidator();
+        this.responseTimeValidator = new ResponseTimeValidator();
     }
 
     public void executePreValidationRequests(APITestCase testCase) {
-        Set<String> preValidationTCIDs = apiTestCaseManager.getValidationTCIDs(testCase.getTCID(), testCase.getExpResultAsMap());
-        preValidationTCIDs.forEach(this::executeValidationRequest);
+        testCase.getValidationPlan().getDynamicExpectations().forEach(this::executeValidationRequest);
     }
 
-    private void executeValidationRequest(String tcid) {
+    // Only the fields that will be compared are kept, not the whole response
+    private void executeValidationRequest(String tcid, List<DynamicExpectation> expectations) {
         APITestCase validationTestCase = apiTestCaseManager.getTestCaseByTCID(tcid);
         APIResponse response = apiRequestExecutor.prepareAndSendRequest(validationTestCase);
-        testContextManager.setPreValidationResponse(tcid, response);
+        List<String> paths = new ArrayList<>();
+        for (DynamicExpectation expectation : expectations) {
+            paths.add(expectation.getPath());
+        }
+        testContextManager.setPreValidationValues(tcid, response.extractValues(paths));
     }
 
     public void verifyResponse(APITestCase testCase, APIResponse response) {
+        if (RunOptions.isSoftAssertions()) {
+            verifyResponseCollectingFailures(testCase, response);
+            return;
+        }
         verifyResponseStatus(testCase, response);
         verifyResponseContent(testCase, response);
+        jsonSchemaValidator.verifySchema(testCase, response);
         executeDynamicValidation(testCase);
+        // Last, so repeated requests for latency samples do not disturb the dynamic validation
+        responseTimeValidator.verifyResponseTime(testCase, response);
+    }
+
+    /**
+     * Evaluates the status code, every field check, every dynamic expectation and the response
+     * time budget, then reports all mismatches in one AssertionError instead of stopping at the
+     * first.
+     */
+    private void verifyResponseCollectingFailures(APITestCase testCase, APIResponse response) {
+        List<String> failures = new ArrayList<>();
+        addIfPresent(failures, standardResponseValidator.checkStatusCode(response, testCase.getExpStatus()));
+        for (FieldCheck fieldCheck : testCase.getValidationPlan().getFieldChecks()) {
+            try {
+                addIfPresent(failures, standardResponseValidator.checkField(response, fieldCheck));
+            } catch (RuntimeException e) {
+                failures.add(String.format("Could not read %s (path %s): %s", fieldCheck.getKey(), fieldCheck.getPath(), e.getMessage()));
+            }
+        }
+        try {
+            for (String violation : jsonSchemaValidator.findViolations(testCase, response)) {
+                failures.add("Schema " + jsonSchemaValidator.getSchemaName(testCase) + " violated at " + violation);
+            }
+        } catch (RuntimeException e) {
+            failures.add("Schema validation failed: " + e.getMessage());
+        }
+        for (Map.Entry<String, List<DynamicExpectation>> entry : testCase.getValidationPlan().getDynamicExpectations().entrySet()) {
+            try {
+                failures.addAll(findDynamicMismatches(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException e) {
+                failures.add(String.format("Dynamic validation of %s failed: %s", entry.getKey(), e.getMessage()));
+            }
+        }
+        try {
+            failures.addAll(responseTimeValidator.findViolations(testCase, response));
+        } catch (RuntimeException e) {
+            failures.add("Response time check failed: " + e.getMessage());
+        }
+        if (!failures.isEmpty()) {
+            StringBuilder message = new StringBuilder()
+                    .append(failures.size()).append(" verification failure(s) for ").append(testCase.getTCID()).append(':');
+            for (int i = 0; i < failures.size(); i++) {
+                message.append('\n').append(i + 1).append(") ").append(failures.get(i));
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    private static void addIfPresent(List<String> failures, String failure) {
+        if (failure != null) {
+            failures.add(failure);
+        }
     }
 
     private void verifyResponseStatus(APITestCase testCase, APIResponse response) {
@@ -42,17 +110,24 @@ public class APIResponseValidator {
     }
 
     private void verifyResponseContent(APITestCase testCase, APIResponse response) {
-        standardResponseValidator.verifyResponseContent(response, testCase.getExpResultAsMap(), testCase.getTCID());
+        standardResponseValidator.verifyResponseContent(response, testCase.getValidationPlan().getFieldChecks());
     }
 
     private void executeDynamicValidation(APITestCase testCase) {
-        Map<String, Map<String, String>> dynamicExpectedResults = apiTestCaseManager.getDynamicExpectedResults(testCase.getExpResultAsMap(), testCase.getTCID());
-        dynamicExpectedResults.forEach(this::executeDynamicValidationByTCID);
+        testCase.getValidationPlan().getDynamicExpectations().forEach(this::executeDynamicValidationByTCID);
     }
 
-    private void executeDynamicValidationByTCID(String tcid, Map<String, String> expectedChanges) {
-        APIResponse preValidationResponse = testContextManager.getPreValidationResponse(tcid);
-        APIResponse postValidationResponse = apiRequestExecutor.prepareAndSendRequest(apiTestCaseManager.getTestCaseByTCID(tcid));
-        DynamicResponseValidator.validate(preValidationResponse, postValidationResponse, expectedChanges);
+    private void executeDynamicValidationByTCID(String tcid, List<DynamicExpectation> expectations) {
+        Map<String, Object> preValidationValues = testContextManager.getPreValidationValues(tcid);
+        APITestCase validationTestCase = apiTestCaseManager.getTestCaseByTCID(tcid);
+        DynamicResponseValidator.validateEventually(tcid, preValidationValues,
+                () -> apiRequestExecutor.prepareAndSendRequest(validationTestCase), expectations);
+    }
+
+    private List<String> findDynamicMismatches(String tcid, List<DynamicExpectation> expectations) {
+        Map<String, Object> preValidationValues = testContextManager.getPreValidationValues(tcid);
+        APITestCase validationTestCase = apiTestCaseManager.getTestCaseByTCID(tcid);
+        return DynamicResponseValidator.findMismatchesEventually(tcid, preValidationValues,
+                () -> apiRequestExecutor.prepareAndSendRequest(validationTestCase), expectations);
     }
 }
\ No newline at end of file
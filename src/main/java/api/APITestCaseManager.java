@@ -1,64 +1,92 @@
 package api;
 
 import api.model.APITestCase;
-import api.util.ExcelTestCaseReader;
+import api.util.TagIndex;
+import api.util.TestCaseSource;
+import api.util.TestCaseSources;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class APITestCaseManager {
     private static final Logger logger = LoggerFactory.getLogger(APITestCaseManager.class);
-    private List<APITestCase> testCases;
+    // Cases parsed so far per source location, so a TCID is read from the source only once
+    private static final Map<String, Map<String, APITestCase>> loadedCases = new ConcurrentHashMap<>();
+    private static final Map<String, List<APITestCase>> runnableCases = new ConcurrentHashMap<>();
+    private static final Map<String, TagIndex> tagIndexes = new ConcurrentHashMap<>();
 
-    public APITestCaseManager() {
-        this.testCases = new ArrayList<>();
+    public TestCaseSource getTestCaseSource() {
+        return TestCaseSources.forProject(APIConfigManager.getInstance().getCurrentProject());
     }
 
-    public List<APITestCase> loadTestCasesFromExcel() {
-        testCases = ExcelTestCaseReader.readTestData("API");
-        logger.info("Loaded {} test cases from Excel", testCases.size());
-        return testCases;
+    public List<APITestCase> loadTestCases() {
+        TestCaseSource source = getTestCaseSource();
+        try (Stream<APITestCase> cases = source.stream()) {
+            List<APITestCase> testCases = cases.collect(Collectors.toList());
+            logger.info("Loaded {} test cases from {}", testCases.size(), source.getLocation());
+            return testCases;
+        }
+    }
+
+    public List<APITestCase> getRunnableTestCases() {
+        TestCaseSource source = getTestCaseSource();
+        List<APITestCase> runnable = runnableCases.computeIfAbsent(source.getLocation(), location -> {
+            Map<String, APITestCase> loaded = getLoadedCases(location);
+            try (Stream<APITestCase> cases = source.stream()) {
+                List<APITestCase> selected = cases.filter(APITestCase::isRun).collect(Collectors.toList());
+                selected.forEach(testCase -> loaded.putIfAbsent(testCase.getTCID(), testCase));
+                logger.info("Loaded {} runnable test cases from {}", selected.size(), location);
+                return selected;
+            }
+        });
+        return new ArrayList<>(runnable);
+    }
+
+    /**
+     * Tag index over the runnable test cases, built once per source location.
+     */
+    public TagIndex getTagIndex() {
+        return tagIndexes.computeIfAbsent(getTestCaseSource().getLocation(), location -> {
+            TagIndex index = new TagIndex(getRunnableTestCases());
+            logger.info("Indexed {} tags over {} runnable test cases", index.getTags().size(), index.size());
+            return index;
+        });
     }
 
     public APITestCase getTestCaseByTCID(String tcid) {
-        if (testCases == null || testCases.isEmpty()) {
-            loadTestCasesFromExcel();
+        TestCaseSource source = getTestCaseSource();
+        Map<String, APITestCase> loaded = getLoadedCases(source.getLocation());
+        APITestCase testCase = loaded.get(tcid);
+        if (testCase != null) {
+            return testCase;
         }
-        return testCases.stream()
-                .filter(tc -> tc.getTCID().equals(tcid))
-                .findFirst()
-                .orElseThrow(() -> {
-                    logger.error("Test case not found for TCID: {}", tcid);
-                    return new IllegalArgumentException("No test case found for TCID: " + tcid);
-                });
+        // Stops reading the source at the first match
+        try (Stream<APITestCase> cases = source.stream()) {
+            testCase = cases.filter(tc -> tc.getTCID().equals(tcid))
+                    .findFirst()
+                    .orElseThrow(() -> {
+                        logger.error("Test case not found for TCID: {}", tcid);
+                        return new IllegalArgumentException("No test case found for TCID: " + tcid);
+                    });
+        }
+        loaded.put(tcid, testCase);
+        return testCase;
     }
 
-    public Set<String> getValidationTCIDs(String currentTCID, Map<String, String> expResult) {
-        return expResult.keySet().stream()
-                .filter(key -> isDynamicField(key, currentTCID))
-                .map(key -> key.split("\\.")[0])
-                .collect(Collectors.toSet());
+    public static void clearCache() {
+        loadedCases.clear();
+        runnableCases.clear();
+        tagIndexes.clear();
     }
 
-    public Map<String, Map<String, String>> getDynamicExpectedResults(Map<String, String> expResult, String currentTCID) {
-        return expResult.entrySet().stream()
-                .filter(entry -> isDynamicField(entry.getKey(), currentTCID))
-                .collect(Collectors.groupingBy(
-                        entry -> entry.getKey().split("\\.")[0],
-                        Collectors.toMap(
-                                entry -> entry.getKey().split("\\.")[1],
-                                Map.Entry::getValue,
-                                (v1, v2) -> v2,
-                                HashMap::new
-                        )
-                ));
+    private static Map<String, APITestCase> getLoadedCases(String location) {
+        return loadedCases.computeIfAbsent(location, key -> new ConcurrentHashMap<>());
     }
 
-    private boolean isDynamicField(String key, String currentTCID) {
-        return key.contains(".") && !key.startsWith(currentTCID);
-    }
     public List<String> getConditionTCIDs(APITestCase testCase, String prefix) {
         List<String> TCIDs = new ArrayList<>();
         for (String condition : testCase.getConditions()) {
@@ -68,4 +96,19 @@ public class APITestCaseManager {
         }
         return TCIDs;
     }
-}
\ No newline at end of file
+
+    public List<String> getDependencyTCIDs(APITestCase testCase) {
+        List<String> TCIDs = new ArrayList<>();
+        if (testCase.getConditions() == null) {
+            return TCIDs;
+        }
+        for (String prefix : Arrays.asList("[TestSetup]", "[TestTearDown]")) {
+            for (String tcid : getConditionTCIDs(testCase, prefix)) {
+                if (!tcid.trim().isEmpty()) {
+                    TCIDs.add(tcid.trim());
+                }
+            }
+        }
+        return TCIDs;
+    }
+}
@@ -0,0 +1,103 @@
+package api;
+
+import api.model.APIResponse;
+import api.model.APITestCase;
+import api.model.TestContext;
+import api.model.TestResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs one test case through the same phases as the Cucumber steps — setup, pre-validation,
+ * main request, verification, storing response values and teardown — and records the result.
+ * Each case runs in its own {@link TestContext} scope, so values saved by one case are not seen
+ * by the next.
+ * <p>
+ * The managers bind to the {@link api.model.TestContext} of the thread that creates them, so
+ * create one runner per worker thread.
+ */
+public class APITestCaseRunner {
+    private static final Logger logger = LoggerFactory.getLogger(APITestCaseRunner.class);
+    private final APITestExecutionManager apiTestExecutionManager;
+    private final APIResponseValidator apiResponseValidator;
+    private final TestTearDownManager testTearDownManager;
+    private final TestResultRecorder testResultRecorder;
+
+    public APITestCaseRunner() {
+        this.apiTestExecutionManager = new APITestExecutionManager();
+        this.apiResponseValidator = new APIResponseValidator();
+        this.testTearDownManager = new TestTearDownManager();
+        this.testResultRecorder = new TestResultRecorder();
+    }
+
+    public TestResult run(APITestCase testCase) {
+        TestResult result = execute(testCase);
+        testResultRecorder.record(result);
+        return result;
+    }
+
+    /**
+     * Runs the case like {@link #run} without recording the result, for callers that report
+     * results elsewhere.
+     */
+    public TestResult execute(APITestCase testCase) {
+        return execute(testCase, response -> { });
+    }
+
+    /**
+     * Runs the case like {@link #execute(APITestCase)} and hands the main response to
+     * {@code responseListener} before it is verified.
+     */
+    public TestResult execute(APITestCase testCase, Consumer<APIResponse> responseListener) {
+        String tcid = testCase.getTCID();
+        TestResult result = new TestResult();
+        result.setTCID(tcid);
+        result.setName(testCase.getName());
+        result.setEndpointKey(testCase.getEndpointKey());
+        long startTime = System.currentTimeMillis();
+        LiveMetrics.caseStarted();
+        TestContext.getInstance().startScenario(tcid);
+        APIResponse response = null;
+        try {
+            apiTestExecutionManager.prefetchRequests(testCase);
+            logger.info("Executing setup test cases for TCID: {}", tcid);
+            apiTestExecutionManager.executeSetupTestCases(testCase);
+            testTearDownManager.registerTearDownTestCases(testCase);
+
+            logger.info("Executing pre-validation requests for TCID: {}", tcid);
+            apiResponseValidator.executePreValidationRequests(testCase);
+
+            logger.info("Executing main request for TCID: {}", tcid);
+            response = apiTestExecutionManager.executeMainRequest(testCase);
+            result.setStatusCode(response.getStatusCode());
+            result.setResponseTimeMs(response.getResponseTime());
+            result.setRequestFingerprint(response.getRequestFingerprint());
+            result.setShared(response.isShared());
+            responseListener.accept(response);
+
+            logger.info("Verifying response for TCID: {}", tcid);
+            apiResponseValidator.verifyResponse(testCase, response);
+            apiTestExecutionManager.storeResponseValues(testCase, response);
+            result.setStatus(TestResult.Status.PASSED);
+        } catch (Exception | AssertionError e) {
+            logger.error("Test case {} failed", tcid, e);
+            result.setStatus(TestResult.Status.FAILED);
+            result.setMessage(String.valueOf(e.getMessage()));
+        } finally {
+            try {
+                testTearDownManager.executeTearDownTestCases();
+            } catch (RuntimeException e) {
+                logger.error("Error during tearDown execution for TCID: {}", tcid, e);
+            }
+            RequestPipeline.clear();
+            TestContext.getInstance().endScenario();
+        }
+        if (response != null) {
+            result.setValidationTimeMs(response.getValidationTimeMs());
+        }
+        result.setDurationMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+}
@@ -3,6 +3,7 @@ package api;
 import api.model.APIResponse;
 import api.model.APITestCase;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class APITestExecutionManager {
@@ -17,10 +18,28 @@ public class APITestExecutionManager {
     }
 
     public APITestCase loadTestCase(String tcid) {
-        apiTestCaseManager.loadTestCasesFromExcel();
         return apiTestCaseManager.getTestCaseByTCID(tcid);
     }
 
+    /**
+     * Starts preparing the setup, pre-validation and main requests of the test case in the
+     * background when {@code -DpipelinedPreparation=true}.
+     */
+    public void prefetchRequests(APITestCase testCase) {
+        if (!RunOptions.isPipelinedPreparation()) {
+            return;
+        }
+        List<APITestCase> testCases = new ArrayList<>();
+        for (String setupTCID : apiTestCaseManager.getConditionTCIDs(testCase, "[TestSetup]")) {
+            testCases.add(apiTestCaseManager.getTestCaseByTCID(setupTCID));
+        }
+        for (String validationTCID : testCase.getValidationPlan().getValidationTCIDs()) {
+            testCases.add(apiTestCaseManager.getTestCaseByTCID(validationTCID));
+        }
+        testCases.add(testCase);
+        RequestPipeline.prefetch(apiRequestExecutor, testCases);
+    }
+
     public void executeSetupTestCases(APITestCase testCase) {
         List<String> setupTCIDs = apiTestCaseManager.getConditionTCIDs(testCase, "[TestSetup]");
         for (String setupTCID : setupTCIDs) {
@@ -39,6 +58,9 @@ public class APITestExecutionManager {
     }
 
     public void storeResponseValues(APITestCase testCase, APIResponse response) {
-        testContextManager.storeResponseValues(response, testCase.getSaveFields());
+        testContextManager.storeResponseValues(response, testCase.getValidationPlan().getSaveFields());
+        if (RunOptions.isMemoryBounded()) {
+            response.evictBody();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-host circuit breaker. After {@code failureThreshold} consecutive connection failures or
+ * retryable status codes the circuit opens and requests to the host fail immediately with a
+ * {@link TestException.CircuitOpenException} cause. After {@code openMs} one trial request is let
+ * through (half-open); its outcome closes or re-opens the circuit.
+ * <p>
+ * Configured per environment under {@code circuitBreaker:} and per host under
+ * {@code hosts.<host:port>.circuitBreaker:}. A threshold of 0 disables the breaker.
+ */
+public class CircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static CircuitBreaker forHost(APIConfigManager apiConfigManager, String host) {
+        String key = apiConfigManager.getCurrentEnvironment() + "/" + host;
+        return breakers.computeIfAbsent(key, name -> {
+            Map<String, Object> defaults = apiConfigManager.getEnvironmentSection("circuitBreaker");
+            Object hostOverride = apiConfigManager.getHostConfig(host).get("circuitBreaker");
+            Map<String, Object> config = hostOverride instanceof Map ? (Map<String, Object>) hostOverride : defaults;
+            int threshold = APIConfigManager.getNumber(config, "failureThreshold",
+                    APIConfigManager.getNumber(defaults, "failureThreshold", 5)).intValue();
+            long openMs = APIConfigManager.getNumber(config, "openMs",
+                    APIConfigManager.getNumber(defaults, "openMs", 30000)).longValue();
+            return new CircuitBreaker(name, threshold, openMs);
+        });
+    }
+
+    public static Map<String, CircuitBreaker> getBreakers() {
+        return breakers;
+    }
+
+    /**
+     * Forgets all breakers, closing their circuits, so they are created again from the current
+     * configuration.
+     */
+    public static void clear() {
+        breakers.clear();
+    }
+
+    /**
+     * Throws if the circuit is open. In half-open state only one trial request is admitted.
+     */
+    public synchronized void checkAllowed() {
+        if (failureThreshold <= 0 || state == State.CLOSED) {
+            return;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+            logger.info("Circuit for {} half-open, sending a trial request", name);
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return;
+        }
+        throw new TestException.RequestExecutionException("Host " + name + " is unavailable",
+                new TestException.CircuitOpenException(String.format("%s after %d consecutive failures, retry after %d ms",
+                        name, consecutiveFailures, Math.max(0, openMillis - (System.currentTimeMillis() - openedAt)))));
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Circuit for {} closed", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (failureThreshold <= 0) {
+            return;
+        }
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+            logger.error("Circuit for {} opened after {} consecutive failures", name, consecutiveFailures);
+        }
+    }
+
+    /**
+     * Releases a half-open trial whose outcome says nothing about the host, e.g. a request that
+     * failed before it was sent.
+     */
+    public synchronized void recordIgnored() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
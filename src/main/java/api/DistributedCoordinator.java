@@ -0,0 +1,285 @@
+package api;
+
+import api.model.APITestCase;
+import api.model.ResultSummary;
+import api.model.TestCaseGroup;
+import api.model.TestResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Hands dependency groups to worker JVMs over a local socket. Workers pull the next group
+ * whenever they are free, so fast workers take over work a static shard would have left to a slow
+ * one. Results are streamed back per case and recorded here once the whole group has finished;
+ * a group whose worker disconnects before finishing is handed to the next free worker, up to
+ * three attempts.
+ * <p>
+ * Usage: {@code java -cp <classpath> -Dproject=DSB1 -Denv=sit -Dworkers=4 api.DistributedCoordinator}.
+ * With {@code -Dworkers=0} the coordinator only listens (on {@code -DcoordinatorPort}) and
+ * {@link DistributedWorker}s are started separately. Case selection is the same as in
+ * {@link HeadlessTestRunner}. Exits with 1 when a case failed.
+ * <p>
+ * Messages are JSON lines: a worker sends {@code hello}, {@code next}, {@code result} and
+ * {@code groupDone}; the coordinator answers {@code next} with {@code work} or {@code done}.
+ */
+public class DistributedCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedCoordinator.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_ATTEMPTS = 3;
+    // Offset between the ${sequence} ranges of the started workers
+    private static final long SEQUENCE_RANGE = 1_000_000_000L;
+
+    private final Deque<TestCaseGroup> pending = new ArrayDeque<>();
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private final List<Process> workers = new ArrayList<>();
+    private final TestResultRecorder testResultRecorder = new TestResultRecorder();
+    private int remainingGroups;
+
+    public static void main(String[] args) {
+        ResultSummary summary = new DistributedCoordinator().run();
+        System.exit(summary.hasFailures() ? 1 : 0);
+    }
+
+    public ResultSummary run() {
+        APIConfigManager apiConfigManager = APIConfigManager.getInstance();
+        apiConfigManager.setProject(RunOptions.getProject());
+        apiConfigManager.setEnvironment(RunOptions.getEnvironment());
+
+        List<TestCaseGroup> groups = new TestShardManager().buildDependencyGroups(new HeadlessTestRunner().selectTestCases());
+        synchronized (this) {
+            pending.addAll(new TestScheduler().orderLongestFirst(groups));
+            remainingGroups = groups.size();
+        }
+
+        try (ServerSocket server = new ServerSocket(RunOptions.getCoordinatorPort(), 50, InetAddress.getLoopbackAddress())) {
+            logger.info("Coordinator listening on {}:{} with {} groups", server.getInetAddress().getHostAddress(),
+                    server.getLocalPort(), groups.size());
+            Thread acceptor = new Thread(() -> accept(server), "e2e-coordinator-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            startWorkers(server.getLocalPort(), RunOptions.getWorkers());
+            awaitCompletion();
+        } catch (IOException e) {
+            throw new TestException("Coordinator failed", e);
+        } finally {
+            stopWorkers();
+        }
+
+        TestResultRecorder.close();
+        ResultSummary summary = TestResultRecorder.getSummary();
+        logger.info("Distributed run finished: {} cases, {} failed", summary.getTotal(), summary.getFailed());
+        return summary;
+    }
+
+    private void accept(ServerSocket server) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread connection = new Thread(() -> serve(socket), "e2e-coordinator-" + socket.getPort());
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    logger.warn("Failed to accept worker connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        String worker = String.valueOf(socket.getRemoteSocketAddress());
+        TestCaseGroup current = null;
+        List<TestResult> results = new ArrayList<>();
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Map<?, ?> message = objectMapper.readValue(line, Map.class);
+                String type = String.valueOf(message.get("type"));
+                if ("hello".equals(type)) {
+                    worker = String.valueOf(message.get("name"));
+                    logger.info("Worker {} connected", worker);
+                } else if ("next".equals(type)) {
+                    current = take();
+                    results.clear();
+                    Map<String, Object> reply = new LinkedHashMap<>();
+                    if (current == null) {
+                        reply.put("type", "done");
+                    } else {
+                        reply.put("type", "work");
+                        reply.put("groupId", current.getGroupId());
+                        reply.put("tcids", current.getTCIDs());
+                    }
+                    send(out, reply);
+                    if (current == null) {
+                        break;
+                    }
+                } else if ("result".equals(type)) {
+                    try {
+                        results.add(objectMapper.convertValue(message.get("result"), TestResult.class));
+                    } catch (IllegalArgumentException e) {
+                        // A result this coordinator cannot read does not mean the worker is gone
+                        logger.warn("Skipping unreadable result from worker {}: {}", worker, line, e);
+                    }
+                } else if ("groupDone".equals(type) && current != null) {
+                    complete(current, results, worker);
+                    current = null;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Lost connection to worker {}", worker, e);
+        }
+        if (current != null) {
+            reassign(current, worker);
+        }
+    }
+
+    // Waits while other workers still hold groups that may come back
+    private synchronized TestCaseGroup take() {
+        while (pending.isEmpty() && remainingGroups > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return pending.poll();
+    }
+
+    private void complete(TestCaseGroup group, List<TestResult> results, String worker) {
+        for (TestResult result : results) {
+            testResultRecorder.record(result);
+        }
+        logger.info("Worker {} finished group {} ({} cases)", worker, group.getGroupId(), results.size());
+        synchronized (this) {
+            remainingGroups--;
+            notifyAll();
+        }
+    }
+
+    private void reassign(TestCaseGroup group, String worker) {
+        int attempt;
+        synchronized (this) {
+            attempt = attempts.merge(group.getGroupId(), 1, Integer::sum);
+            if (attempt < MAX_ATTEMPTS) {
+                logger.warn("Worker {} left before finishing group {}; reassigning (attempt {})", worker, group.getGroupId(), attempt + 1);
+                pending.addFirst(group);
+                notifyAll();
+                return;
+            }
+        }
+        failGroup(group, "Worker " + worker + " was lost while running this group " + attempt + " times");
+    }
+
+    private void failGroup(TestCaseGroup group, String message) {
+        for (APITestCase testCase : group.getTestCases()) {
+            TestResult result = new TestResult();
+            result.setTCID(testCase.getTCID());
+            result.setName(testCase.getName());
+            result.setEndpointKey(testCase.getEndpointKey());
+            result.setStatus(TestResult.Status.FAILED);
+            result.setMessage(message);
+            testResultRecorder.record(result);
+        }
+        synchronized (this) {
+            remainingGroups--;
+            notifyAll();
+        }
+    }
+
+    private void awaitCompletion() {
+        while (true) {
+            List<TestCaseGroup> abandoned;
+            synchronized (this) {
+                if (remainingGroups == 0) {
+                    return;
+                }
+                // Without pending groups the rest is held by connections that reassign it on close
+                if (pending.isEmpty() || workers.isEmpty() || workers.stream().anyMatch(Process::isAlive)) {
+                    try {
+                        wait(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new TestException("Distributed run interrupted", e);
+                    }
+                    continue;
+                }
+                abandoned = new ArrayList<>(pending);
+                pending.clear();
+            }
+            // All started workers have exited
+            for (TestCaseGroup group : abandoned) {
+                failGroup(group, "No worker left to run this group");
+            }
+        }
+    }
+
+    private void startWorkers(int port, int count) throws IOException {
+        if (count <= 0) {
+            logger.info("Waiting for workers to connect to port {}", port);
+            return;
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Path logDirectory = Paths.get(RunOptions.getResultDirectory());
+        Files.createDirectories(logDirectory);
+        for (int i = 1; i <= count; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+                if (!argument.startsWith("-Dworkers=") && !argument.startsWith("-DcoordinatorPort=")
+                        && !argument.startsWith("-agentlib") && !argument.startsWith("-javaagent")) {
+                    command.add(argument);
+                }
+            }
+            command.add("-Dcoordinator=127.0.0.1:" + port);
+            command.add("-DworkerName=worker-" + i);
+            command.add("-DsequenceStart=" + i * SEQUENCE_RANGE);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(DistributedWorker.class.getName());
+            File log = logDirectory.resolve("worker-" + i + ".log").toFile();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+            synchronized (this) {
+                workers.add(process);
+            }
+            logger.info("Started worker-{}, logging to {}", i, log.getAbsolutePath());
+        }
+    }
+
+    private void stopWorkers() {
+        List<Process> started;
+        synchronized (this) {
+            started = new ArrayList<>(workers);
+        }
+        for (Process process : started) {
+            try {
+                if (!process.waitFor(10, java.util.concurrent.TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void send(BufferedWriter out, Map<String, Object> message) throws IOException {
+        out.write(objectMapper.writeValueAsString(message));
+        out.newLine();
+        out.flush();
+    }
+}
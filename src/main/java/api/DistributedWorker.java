@@ -0,0 +1,85 @@
+package api;
+
+import api.model.TestResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pulls dependency groups from a {@link DistributedCoordinator} and runs them with
+ * {@link APITestCaseRunner}, streaming each result back as soon as the case has finished.
+ * <p>
+ * Usage: {@code java -cp <classpath> -Dproject=DSB1 -Denv=sit -Dcoordinator=127.0.0.1:<port>
+ * [-DworkerName=worker-1] api.DistributedWorker}. The coordinator starts workers this way
+ * itself when run with {@code -Dworkers}.
+ */
+public class DistributedWorker {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedWorker.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) {
+        new DistributedWorker().run();
+        System.exit(0);
+    }
+
+    public void run() {
+        String name = RunOptions.getWorkerName();
+        // Test data streams are seeded per thread name, so every worker generates different values
+        Thread.currentThread().setName(name);
+        APIConfigManager apiConfigManager = APIConfigManager.getInstance();
+        apiConfigManager.setProject(RunOptions.getProject());
+        apiConfigManager.setEnvironment(RunOptions.getEnvironment());
+        APITestCaseManager apiTestCaseManager = new APITestCaseManager();
+        APITestCaseRunner runner = new APITestCaseRunner();
+
+        String[] address = RunOptions.getCoordinatorAddress().split(":");
+        try (Socket socket = new Socket(address[0], Integer.parseInt(address[1]));
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            send(out, message("hello", "name", name));
+            int cases = 0;
+            while (true) {
+                send(out, message("next", null, null));
+                String line = in.readLine();
+                if (line == null) {
+                    break;
+                }
+                Map<?, ?> work = objectMapper.readValue(line, Map.class);
+                if (!"work".equals(work.get("type"))) {
+                    break;
+                }
+                for (Object tcid : (List<?>) work.get("tcids")) {
+                    TestResult result = runner.execute(apiTestCaseManager.getTestCaseByTCID(String.valueOf(tcid)));
+                    send(out, message("result", "result", result));
+                    cases++;
+                }
+                send(out, message("groupDone", "groupId", work.get("groupId")));
+            }
+            logger.info("Worker {} finished after {} cases", name, cases);
+        } catch (IOException e) {
+            throw new TestException("Worker " + name + " lost the connection to the coordinator", e);
+        }
+    }
+
+    private static Map<String, Object> message(String type, String key, Object value) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", type);
+        if (key != null) {
+            message.put(key, value);
+        }
+        return message;
+    }
+
+    private static void send(BufferedWriter out, Map<String, Object> message) throws IOException {
+        out.write(objectMapper.writeValueAsString(message));
+        out.newLine();
+        out.flush();
+    }
+}
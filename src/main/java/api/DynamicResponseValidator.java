@@ -1,56 +1,160 @@
 package api;
 
 import api.model.APIResponse;
+import api.model.ValidationPlan.DynamicExpectation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Compares the fields of a validation TCID's response captured before the main request with its
+ * response afterwards. An expectation may
+ * end with {@code within <n>ms|s} (e.g. {@code Summary01.total=+1 within 10s}) for backends that
+ * apply changes asynchronously: the validation request is then re-issued with growing delays
+ * until every expectation holds or the longest wait has passed.
+ */
 public class DynamicResponseValidator {
     private static final Logger logger = LoggerFactory.getLogger(DynamicResponseValidator.class);
+    private static final long MIN_POLL_DELAY_MS = 50;
+    private static final long MAX_POLL_DELAY_MS = 2000;
+    // Last observed time until a validation TCID converged, used as the first poll delay next time
+    private static final Map<String, Long> convergenceMillis = new ConcurrentHashMap<>();
 
-    public static void validate(APIResponse beforeResponse, APIResponse afterResponse, Map<String, String> expectedChanges) {
+    public static void validate(Map<String, Object> beforeValues, APIResponse afterResponse, List<DynamicExpectation> expectations) {
         logger.info("Starting dynamic validation");
-        for (Map.Entry<String, String> entry : expectedChanges.entrySet()) {
-            String field = entry.getKey();
-            String expectedChange = entry.getValue();
+        List<String> mismatches = findMismatches(beforeValues, afterResponse, expectations);
+        if (!mismatches.isEmpty()) {
+            throw new TestException.ResponseValidationException(String.join("; ", mismatches));
+        }
+        logger.info("Dynamic validation completed successfully");
+    }
+
+    /**
+     * Validates like {@link #validate}, polling {@code fetch} while an expectation with a
+     * {@code within} clause is not yet met.
+     */
+    public static void validateEventually(String tcid, Map<String, Object> beforeValues, Supplier<APIResponse> fetch,
+                                          List<DynamicExpectation> expectations) {
+        List<String> mismatches = findMismatchesEventually(tcid, beforeValues, fetch, expectations);
+        if (!mismatches.isEmpty()) {
+            throw new TestException.ResponseValidationException(String.join("; ", mismatches));
+        }
+        logger.info("Dynamic validation completed successfully");
+    }
+
+    /**
+     * Polls like {@link #validateEventually} and returns the mismatches left at the end instead
+     * of throwing.
+     */
+    public static List<String> findMismatchesEventually(String tcid, Map<String, Object> beforeValues, Supplier<APIResponse> fetch,
+                                                        List<DynamicExpectation> expectations) {
+        logger.info("Starting dynamic validation of {}", tcid);
+        long maxWait = getMaxWaitMillis(expectations);
+        long start = System.currentTimeMillis();
+        APIResponse afterResponse = fetch.get();
+        if (maxWait > 0) {
+            long deadline = start + maxWait;
+            long delay = Math.max(MIN_POLL_DELAY_MS, convergenceMillis.getOrDefault(tcid, MIN_POLL_DELAY_MS) / 2);
+            int polls = 1;
+            while (!findMismatches(beforeValues, afterResponse, expectations).isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                sleep(Math.min(delay, remaining));
+                delay = Math.min(MAX_POLL_DELAY_MS, delay * 2);
+                afterResponse = fetch.get();
+                polls++;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            logger.info("Polled {} {} time(s) over {} ms", tcid, polls, elapsed);
+            convergenceMillis.put(tcid, elapsed);
+        }
+        return findMismatches(beforeValues, afterResponse, expectations);
+    }
 
-            Object beforeValue = beforeResponse.jsonPath().get(field);
-            Object afterValue = afterResponse.jsonPath().get(field);
+    public static List<String> findMismatches(Map<String, Object> beforeValues, APIResponse afterResponse, List<DynamicExpectation> expectations) {
+        List<String> mismatches = new ArrayList<>();
+        for (DynamicExpectation expectation : expectations) {
+            String field = expectation.getKey();
+            Object beforeValue = beforeValues.get(expectation.getPath());
+            Object afterValue = afterResponse.jsonPath().get(expectation.getPath());
 
-            logger.debug("Validating field: {}. Before value: {}, After value: {}, Expected change: {}", field, beforeValue, afterValue, expectedChange);
+            logger.debug("Validating field: {}. Before value: {}, After value: {}, Expected change: {}", field, beforeValue, afterValue, expectation.getExpected());
 
-            if (expectedChange.startsWith("+")) {
-                validateIncrease(field, beforeValue, afterValue, expectedChange);
-            } else if (expectedChange.startsWith("-")) {
-                validateDecrease(field, beforeValue, afterValue, expectedChange);
-            } else {
-                validateExactMatch(field, afterValue, expectedChange);
+            String mismatch;
+            switch (expectation.getOperator()) {
+                case INCREASE:
+                    mismatch = checkChange(field, beforeValue, afterValue, expectation, true);
+                    break;
+                case DECREASE:
+                    mismatch = checkChange(field, beforeValue, afterValue, expectation, false);
+                    break;
+                default:
+                    mismatch = checkExactMatch(field, afterValue, expectation.getExpected());
+            }
+            if (mismatch != null) {
+                mismatches.add(mismatch);
             }
         }
-        logger.info("Dynamic validation completed successfully");
+        return mismatches;
+    }
+
+    static long getMaxWaitMillis(List<DynamicExpectation> expectations) {
+        long maxWait = 0;
+        for (DynamicExpectation expectation : expectations) {
+            maxWait = Math.max(maxWait, expectation.getWithinMillis());
+        }
+        return maxWait;
+    }
+
+    private static String checkChange(String field, Object beforeValue, Object afterValue, DynamicExpectation expectation, boolean increase) {
+        if (beforeValue == null || afterValue == null) {
+            return String.format("Expected %s to change by %s, but it changed from %s to %s", field, expectation.getExpected(), beforeValue, afterValue);
+        }
+        BigDecimal change = expectation.getDelta();
+        BigDecimal before = toNumber(beforeValue);
+        BigDecimal after = toNumber(afterValue);
+        if (before == null || after == null) {
+            return String.format("Expected %s to change by %s, but it is not numeric: changed from %s to %s",
+                    field, expectation.getExpected(), beforeValue, afterValue);
+        }
+        BigDecimal expected = increase ? before.add(change) : before.subtract(change);
+        if (after.compareTo(expected) != 0) {
+            return String.format("Expected %s to %s by %s, but it changed from %s to %s",
+                    field, increase ? "increase" : "decrease", change, beforeValue, afterValue);
+        }
+        logger.debug("Expected field {} changed by {} as expected", field, expectation.getExpected());
+        return null;
     }
 
-    private static void validateIncrease(String field, Object beforeValue, Object afterValue, String expectedChange) {
-        float change = Float.parseFloat(expectedChange.substring(1));
-        float after = Float.parseFloat(afterValue.toString());
-        float before = Float.parseFloat(beforeValue.toString());
-        assert after == before + change : "Expected " + field + " to increase by " + change + ", but it changed from " + beforeValue + " to " + afterValue;
-        logger.debug("Expected field {} increased by {} as expected", field, expectedChange);
+    private static BigDecimal toNumber(Object value) {
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
-    private static void validateDecrease(String field, Object beforeValue, Object afterValue, String expectedChange) {
-        float change = Float.parseFloat(expectedChange.substring(1));
-        float after = Float.parseFloat(afterValue.toString());
-        float before = Float.parseFloat(beforeValue.toString());
-        assert after == before - change : "Expected " + field + " to decrease by " + change + ", but it changed from " + beforeValue + " to " + afterValue;
-        logger.debug("Expected field {} decreased by {} as expected", field, expectedChange);
+    private static String checkExactMatch(String field, Object afterValue, String expectedChange) {
+        if (afterValue == null || !afterValue.toString().equals(expectedChange)) {
+            return String.format("Expected %s to be %s, but it was %s", field, expectedChange, afterValue);
+        }
+        return null;
     }
 
-    private static void validateExactMatch(String field, Object afterValue, String expectedChange) {
-        if (!afterValue.toString().equals(expectedChange)) {
-            throw new TestException.ResponseValidationException(
-                    String.format("Expected %s to be %s, but it was %s",
-                            field, expectedChange, afterValue));
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestException.ResponseValidationException("Interrupted while polling for dynamic validation", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package api;
+
+import api.model.APIResponse;
+import api.model.APITestCase;
+import api.model.TestCaseGroup;
+import api.model.TestResult;
+import api.util.JsonDiff;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs every selected test case against several environments at once and compares the main
+ * responses, so checking that e.g. {@code dev} and {@code sit} behave the same takes one run.
+ * <p>
+ * Usage: {@code java -cp <classpath> -Dproject=DSB1 -DcompareEnvs=dev,sit [-Dthreads=4]
+ * [-DdiffIgnore=timestamp,item.id] api.EnvironmentComparisonRunner}. Case selection is the same
+ * as in {@link HeadlessTestRunner}, and the cases of a dependency group are compared one after
+ * another. Each environment runs the case on its own thread with its own
+ * {@link api.model.TestContext} and endpoint configuration. The responses of the other
+ * environments are compared with the first one: status codes, then the bodies structurally
+ * with {@link JsonDiff}. Volatile fields are ignored when listed in {@code -DdiffIgnore} or in
+ * the endpoint's {@code volatileFields} in api-endpoint-config.yaml. Every case is written to
+ * {@code env-diff.jsonl} in the result directory. Exits with 1 when any case differs.
+ */
+public class EnvironmentComparisonRunner {
+    private static final Logger logger = LoggerFactory.getLogger(EnvironmentComparisonRunner.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final APIConfigManager apiConfigManager = APIConfigManager.getInstance();
+    // One runner per thread so each binds to its own thread's TestContext
+    private final ThreadLocal<APITestCaseRunner> runners = ThreadLocal.withInitial(APITestCaseRunner::new);
+
+    public static void main(String[] args) {
+        int differing = new EnvironmentComparisonRunner().run();
+        System.exit(differing > 0 ? 1 : 0);
+    }
+
+    /**
+     * Compares all selected cases and returns the number of cases whose environments differ.
+     */
+    public int run() {
+        List<String> environments = RunOptions.getCompareEnvironments();
+        if (environments.size() < 2) {
+            throw new TestException.ConfigurationException("-DcompareEnvs needs at least two environments");
+        }
+        apiConfigManager.setProject(RunOptions.getProject());
+        apiConfigManager.setEnvironment(environments.get(0));
+        LiveDashboard.startIfEnabled();
+        List<APITestCase> testCases = new HeadlessTestRunner().selectTestCases();
+
+        int threads = Math.max(1, RunOptions.getThreads());
+        ExecutorService caseWorkers = Executors.newFixedThreadPool(threads, WorkerThreads.named("e2e-compare-"));
+        ExecutorService environmentWorkers = Executors.newFixedThreadPool(threads * environments.size(), WorkerThreads.named("e2e-env-"));
+        Path reportFile = Paths.get(RunOptions.getResultDirectory(), "env-diff.jsonl");
+        int differing = 0;
+        try {
+            Files.createDirectories(reportFile.getParent());
+            // Cases of a dependency group share context, so each group runs in order on one worker
+            List<TestCaseGroup> groups = new TestShardManager().buildDependencyGroups(testCases);
+            List<Future<List<Map<String, Object>>>> futures = new ArrayList<>();
+            for (TestCaseGroup group : new TestScheduler().orderLongestFirst(groups)) {
+                futures.add(caseWorkers.submit(() -> {
+                    List<Map<String, Object>> comparisons = new ArrayList<>();
+                    for (APITestCase testCase : group.getTestCases()) {
+                        comparisons.add(compare(testCase, environments, environmentWorkers));
+                    }
+                    return comparisons;
+                }));
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                for (Future<List<Map<String, Object>>> future : futures) {
+                    for (Map<String, Object> comparison : future.get()) {
+                        if (!Boolean.TRUE.equals(comparison.get("same"))) {
+                            differing++;
+                        }
+                        writer.write(objectMapper.writeValueAsString(comparison));
+                        writer.newLine();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new TestException("Failed to write environment comparison to " + reportFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestException("Environment comparison interrupted", e);
+        } catch (ExecutionException e) {
+            throw new TestException("Environment comparison aborted", e.getCause());
+        } finally {
+            caseWorkers.shutdownNow();
+            environmentWorkers.shutdownNow();
+        }
+        logger.info("Compared {} cases across {}: {} differ. Details in {}", testCases.size(), environments,
+                differing, reportFile.toAbsolutePath());
+        return differing;
+    }
+
+    private Map<String, Object> compare(APITestCase testCase, List<String> environments, ExecutorService environmentWorkers)
+            throws InterruptedException, ExecutionException {
+        Map<String, Future<Outcome>> futures = new LinkedHashMap<>();
+        for (String environment : environments) {
+            futures.put(environment, environmentWorkers.submit(() -> execute(testCase, environment)));
+        }
+        Map<String, Outcome> outcomes = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<Outcome>> entry : futures.entrySet()) {
+            outcomes.put(entry.getKey(), entry.getValue().get());
+        }
+
+        Set<String> ignoredFields = new LinkedHashSet<>(Arrays.asList(RunOptions.getDiffIgnore().split(",")));
+        for (Outcome outcome : outcomes.values()) {
+            ignoredFields.addAll(outcome.volatileFields);
+        }
+        JsonDiff jsonDiff = new JsonDiff(ignoredFields);
+        String reference = environments.get(0);
+        Outcome expected = outcomes.get(reference);
+        Map<String, List<String>> differences = new LinkedHashMap<>();
+        for (String environment : environments.subList(1, environments.size())) {
+            Outcome actual = outcomes.get(environment);
+            List<String> found = new ArrayList<>();
+            if (!Objects.equals(expected.result.getStatusCode(), actual.result.getStatusCode())) {
+                found.add("status code: " + expected.result.getStatusCode() + " != " + actual.result.getStatusCode());
+            }
+            found.addAll(jsonDiff.diff(expected.body, actual.body));
+            if (!found.isEmpty()) {
+                differences.put(environment, found);
+                logger.warn("{} differs between {} and {}: {}", testCase.getTCID(), reference, environment, found);
+            }
+        }
+
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        comparison.put("tcid", testCase.getTCID());
+        comparison.put("name", testCase.getName());
+        comparison.put("endpointKey", testCase.getEndpointKey());
+        comparison.put("reference", reference);
+        comparison.put("same", differences.isEmpty());
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Outcome> entry : outcomes.entrySet()) {
+            TestResult result = entry.getValue().result;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("status", result.getStatus());
+            summary.put("statusCode", result.getStatusCode());
+            summary.put("responseTimeMs", result.getResponseTimeMs());
+            summary.put("message", result.getMessage());
+            results.put(entry.getKey(), summary);
+        }
+        comparison.put("environments", results);
+        comparison.put("differences", differences);
+        return comparison;
+    }
+
+    private Outcome execute(APITestCase testCase, String environment) {
+        return apiConfigManager.withEnvironment(environment, () -> {
+            Outcome outcome = new Outcome();
+            outcome.result = runners.get().execute(testCase, response -> outcome.body = readBody(response));
+            outcome.volatileFields = getVolatileFields(testCase);
+            return outcome;
+        });
+    }
+
+    private static Object readBody(APIResponse response) {
+        try {
+            return response.getBodyAsObject();
+        } catch (RuntimeException e) {
+            // Not JSON or XML: compare the raw text
+            return response.getBodyAsString();
+        }
+    }
+
+    private List<String> getVolatileFields(APITestCase testCase) {
+        Object configured = apiConfigManager.getEndpointConfig(testCase.getEndpointKey()).get("volatileFields");
+        List<String> fields = new ArrayList<>();
+        if (configured instanceof Collection) {
+            for (Object field : (Collection<?>) configured) {
+                fields.add(String.valueOf(field));
+            }
+        } else if (configured != null) {
+            fields.addAll(Arrays.asList(configured.toString().split(",")));
+        }
+        return fields;
+    }
+
+    private static class Outcome {
+        private TestResult result;
+        private Object body;
+        private List<String> volatileFields = Collections.emptyList();
+    }
+}
@@ -0,0 +1,374 @@
+package api;
+
+import api.model.TestResult;
+import api.util.ExcelTestCaseReader;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Writes the outcome of each test case next to its TCID into a copy of the test case workbook:
+ * status, last duration, actual status code and failure reason.
+ * <p>
+ * The source workbook is read with SAX and the copy is written with SXSSF in one pass, so only a
+ * window of rows is held in memory. Cells are copied by type: numbers with their number format,
+ * formulas, booleans, errors and strings. Other cell styles are not copied. Result columns
+ * already present in the workbook are overwritten.
+ * <p>
+ * Usage: {@code java -cp <classpath> -Dproject=DSB1 api.ExcelResultWriter [results.jsonl] [output.xlsx]},
+ * or {@code -DexcelWriteBack=true} to write it at the end of a run. Sharded runs write it once from
+ * the merged results in {@link ShardResultMerger}.
+ */
+public class ExcelResultWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ExcelResultWriter.class);
+    private static final String SHEET_NAME = "API";
+    private static final List<String> RESULT_COLUMNS = Arrays.asList(
+            "Result Status", "Last Duration (ms)", "Actual Status Code", "Failure Reason");
+    // Excel rejects longer cell texts
+    private static final int MAX_CELL_LENGTH = 32767;
+    private static final int ROW_WINDOW = 200;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static void main(String[] args) {
+        Path workbook = Paths.get(ExcelTestCaseReader.getWorkbookPath(RunOptions.getProject()));
+        Path resultFile = args.length > 0 ? Paths.get(args[0]) : TestResultRecorder.getResultFile();
+        Path output = args.length > 1 ? Paths.get(args[1]) : getDefaultOutputFile();
+        new ExcelResultWriter().write(workbook, resultFile, output);
+    }
+
+    public static Path getDefaultOutputFile() {
+        return getDefaultOutputFile(Paths.get(RunOptions.getResultDirectory()));
+    }
+
+    public static Path getDefaultOutputFile(Path resultDirectory) {
+        return resultDirectory.resolve("api_test_cases-results.xlsx");
+    }
+
+    public void write(Path workbook, Path resultFile, Path output) {
+        Map<String, TestResult> results = readResults(resultFile);
+        long start = System.currentTimeMillis();
+        SXSSFWorkbook target = new SXSSFWorkbook(ROW_WINDOW);
+        target.setCompressTempFiles(true);
+        try (OPCPackage source = OPCPackage.open(workbook.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(source);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(source);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            Map<Integer, CellStyle> numberFormats = new HashMap<>();
+            boolean formulas = false;
+            int annotated = 0;
+            while (sheets.hasNext()) {
+                try (InputStream sheetData = sheets.next()) {
+                    String sheetName = sheets.getSheetName();
+                    SheetCopier copier = new SheetCopier(target.createSheet(sheetName),
+                            SHEET_NAME.equals(sheetName) ? results : null, strings, styles, numberFormats);
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(copier);
+                    parser.parse(new InputSource(sheetData));
+                    annotated += copier.annotatedRows;
+                    formulas |= copier.formulaCopied;
+                }
+            }
+            if (formulas) {
+                // Formulas are copied without their cached results
+                target.setForceFormulaRecalculation(true);
+            }
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(output)) {
+                target.write(out);
+            }
+            logger.info("Wrote results of {} test cases into {} in {} ms", annotated, output.toAbsolutePath(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            throw new TestException("Failed to write results into a copy of " + workbook, e);
+        } finally {
+            target.dispose();
+        }
+    }
+
+    private Map<String, TestResult> readResults(Path resultFile) {
+        Map<String, TestResult> results = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(resultFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    TestResult result = objectMapper.readValue(line, TestResult.class);
+                    // Keep the last outcome when a TCID was recorded more than once
+                    results.put(result.getTCID(), result);
+                }
+            }
+        } catch (Exception e) {
+            throw new TestException("Failed to read results from " + resultFile, e);
+        }
+        return results;
+    }
+
+    /**
+     * Copies the cells of one sheet from its XML as they are stored: numbers with their number
+     * format (so dates stay dates), formulas, booleans, errors and strings (so {@code 007} keeps
+     * its leading zeros).
+     */
+    private static class SheetCopier extends DefaultHandler {
+        private final SXSSFSheet sheet;
+        private final Map<String, TestResult> results;
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+        private final Map<Integer, CellStyle> numberFormats;
+        private final Set<Integer> resultColumns = new HashSet<>();
+        private final StringBuilder text = new StringBuilder();
+        private int[] resultColumnIndexes;
+        private int tcidColumn = -1;
+        private int rowNum = -1;
+        private Row row;
+        private String tcid;
+        private int annotatedRows;
+        private boolean formulaCopied;
+
+        // The cell being read
+        private int column;
+        private String type;
+        private int styleIndex;
+        private String value;
+        private String formula;
+        private boolean inValue;
+        private boolean inFormula;
+        private boolean inInlineString;
+
+        SheetCopier(SXSSFSheet sheet, Map<String, TestResult> results, ReadOnlySharedStringsTable strings,
+                    StylesTable styles, Map<Integer, CellStyle> numberFormats) {
+            this.sheet = sheet;
+            this.results = results;
+            this.strings = strings;
+            this.styles = styles;
+            this.numberFormats = numberFormats;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String reference = attributes.getValue("r");
+                    rowNum = reference == null ? rowNum + 1 : Integer.parseInt(reference) - 1;
+                    row = sheet.createRow(rowNum);
+                    tcid = null;
+                    column = -1;
+                    break;
+                case "c":
+                    String cellReference = attributes.getValue("r");
+                    column = cellReference == null ? column + 1 : new CellReference(cellReference).getCol();
+                    type = attributes.getValue("t");
+                    String style = attributes.getValue("s");
+                    styleIndex = style == null ? -1 : Integer.parseInt(style);
+                    value = null;
+                    formula = null;
+                    break;
+                case "v":
+                    inValue = true;
+                    text.setLength(0);
+                    break;
+                case "f":
+                    inFormula = true;
+                    text.setLength(0);
+                    break;
+                case "is":
+                    inInlineString = true;
+                    text.setLength(0);
+                    break;
+                default:
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue || inFormula || inInlineString) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    value = text.toString();
+                    break;
+                case "f":
+                    inFormula = false;
+                    formula = text.toString();
+                    break;
+                case "is":
+                    inInlineString = false;
+                    value = text.toString();
+                    break;
+                case "c":
+                    copyCell();
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+            }
+        }
+
+        private void copyCell() {
+            String stringValue = getStringValue();
+            if (results != null && rowNum == 0 && "TCID".equals(stringValue)) {
+                tcidColumn = column;
+            }
+            if (results != null && rowNum > 0) {
+                if (column == tcidColumn) {
+                    tcid = stringValue != null ? stringValue : value;
+                }
+                if (resultColumns.contains(column)) {
+                    return;
+                }
+            }
+            Cell cell = row.createCell(column);
+            applyNumberFormat(cell);
+            if (formula != null && !formula.isEmpty() && copyFormula(cell)) {
+                return;
+            }
+            if (value == null) {
+                return;
+            }
+            if (stringValue != null) {
+                setValue(cell, stringValue);
+            } else if ("b".equals(type)) {
+                cell.setCellValue("1".equals(value) || "true".equalsIgnoreCase(value));
+            } else if ("e".equals(type)) {
+                try {
+                    cell.setCellErrorValue(FormulaError.forString(value).getCode());
+                } catch (IllegalArgumentException e) {
+                    setValue(cell, value);
+                }
+            } else {
+                try {
+                    cell.setCellValue(Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    setValue(cell, value);
+                }
+            }
+        }
+
+        // Text of string cells, or null for numbers, booleans and errors
+        private String getStringValue() {
+            if (value == null) {
+                return null;
+            }
+            if ("s".equals(type)) {
+                return strings.getItemAt(Integer.parseInt(value)).getString();
+            }
+            if ("inlineStr".equals(type) || "str".equals(type)) {
+                return value;
+            }
+            return null;
+        }
+
+        private boolean copyFormula(Cell cell) {
+            try {
+                cell.setCellFormula(formula);
+                formulaCopied = true;
+                return true;
+            } catch (RuntimeException e) {
+                // Formulas POI cannot parse, e.g. with external references, keep their last value
+                logger.debug("Copying value of formula {} in {}: {}", formula, sheet.getSheetName(), e.toString());
+                return false;
+            }
+        }
+
+        private void applyNumberFormat(Cell cell) {
+            if (styleIndex < 0 || styleIndex >= styles.getNumCellStyles()) {
+                return;
+            }
+            CellStyle sourceStyle = styles.getStyleAt(styleIndex);
+            if (sourceStyle.getDataFormat() == 0) {
+                return;
+            }
+            CellStyle targetStyle = numberFormats.computeIfAbsent(styleIndex, k -> {
+                Workbook workbook = sheet.getWorkbook();
+                CellStyle created = workbook.createCellStyle();
+                created.setDataFormat(workbook.createDataFormat().getFormat(sourceStyle.getDataFormatString()));
+                return created;
+            });
+            cell.setCellStyle(targetStyle);
+        }
+
+        private void endRow() {
+            if (results == null) {
+                return;
+            }
+            if (rowNum == 0) {
+                addResultHeaders();
+                return;
+            }
+            TestResult result = tcid == null ? null : results.get(tcid.trim());
+            if (result != null) {
+                setValue(row.createCell(resultColumnIndexes[0]), String.valueOf(result.getStatus()));
+                row.createCell(resultColumnIndexes[1]).setCellValue(result.getDurationMs());
+                if (result.getStatusCode() != null) {
+                    row.createCell(resultColumnIndexes[2]).setCellValue(result.getStatusCode());
+                }
+                if (result.getStatus() == TestResult.Status.FAILED) {
+                    setValue(row.createCell(resultColumnIndexes[3]), String.valueOf(result.getMessage()));
+                }
+                annotatedRows++;
+            }
+        }
+
+        private void addResultHeaders() {
+            Map<String, Integer> headers = new HashMap<>();
+            for (Cell cell : row) {
+                if (cell.getCellType() == CellType.STRING) {
+                    headers.put(cell.getStringCellValue(), cell.getColumnIndex());
+                }
+            }
+            resultColumnIndexes = new int[RESULT_COLUMNS.size()];
+            int next = Math.max(row.getLastCellNum(), 0);
+            for (int i = 0; i < RESULT_COLUMNS.size(); i++) {
+                Integer existing = headers.get(RESULT_COLUMNS.get(i));
+                resultColumnIndexes[i] = existing != null ? existing : next++;
+                resultColumns.add(resultColumnIndexes[i]);
+                row.createCell(resultColumnIndexes[i]).setCellValue(RESULT_COLUMNS.get(i));
+            }
+        }
+
+        private static void setValue(Cell cell, String value) {
+            if (value.isEmpty()) {
+                return;
+            }
+            cell.setCellValue(value.length() > MAX_CELL_LENGTH ? value.substring(0, MAX_CELL_LENGTH) : value);
+        }
+    }
+}
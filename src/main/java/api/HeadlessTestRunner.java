@@ -0,0 +1,92 @@
+package api;
+
+import api.model.APITestCase;
+import api.model.ResultSummary;
+import api.model.TestCaseGroup;
+import api.util.TagExpression;
+import api.util.TagIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs the Excel catalog directly, without Cucumber or Serenity, for fast CI runs.
+ * <p>
+ * Usage: {@code java -cp <classpath> -Dproject=DSB1 -Denv=sit [-Dtags="AddItem and not slow"]
+ * [-Dthreads=4] api.HeadlessTestRunner}. Cases with Run = Y whose Tags match the
+ * {@link TagExpression} are executed; shard and incremental selection apply as in Cucumber runs. Dependency groups are
+ * handed to the worker threads longest-first. Results are streamed to the JSONL and JUnit XML
+ * files by {@link TestResultRecorder} as cases finish, and with {@code -Ddashboard=true} progress
+ * can be followed in the {@link LiveDashboard}. Exits with 1 when a case failed.
+ */
+public class HeadlessTestRunner {
+    private static final Logger logger = LoggerFactory.getLogger(HeadlessTestRunner.class);
+
+    public static void main(String[] args) {
+        ResultSummary summary = new HeadlessTestRunner().run();
+        System.exit(summary.hasFailures() ? 1 : 0);
+    }
+
+    public ResultSummary run() {
+        APIConfigManager apiConfigManager = APIConfigManager.getInstance();
+        apiConfigManager.setProject(RunOptions.getProject());
+        apiConfigManager.setEnvironment(RunOptions.getEnvironment());
+        LiveDashboard.startIfEnabled();
+        TestResultRecorder.open();
+
+        List<TestCaseGroup> groups = new TestShardManager().buildDependencyGroups(selectTestCases());
+        List<TestCaseGroup> ordered = new TestScheduler().orderLongestFirst(groups);
+        execute(ordered, RunOptions.getThreads());
+        TestResultRecorder.close();
+
+        ResultSummary summary = TestResultRecorder.getSummary();
+        logger.info("Headless run finished: {} cases, {} failed", summary.getTotal(), summary.getFailed());
+        return summary;
+    }
+
+    List<APITestCase> selectTestCases() {
+        TagExpression tagExpression = TagExpression.parse(RunOptions.getTags());
+        TestShardManager testShardManager = new TestShardManager();
+        IncrementalRunManager incrementalRunManager = IncrementalRunManager.getInstance();
+        TagIndex tagIndex = new APITestCaseManager().getTagIndex();
+        List<APITestCase> selected = new ArrayList<>();
+        for (APITestCase testCase : tagIndex.select(tagExpression)) {
+            if (testShardManager.isInCurrentShard(testCase.getTCID())
+                    && incrementalRunManager.isSelected(testCase.getTCID())) {
+                selected.add(testCase);
+            }
+        }
+        logger.info("Selected {} of {} runnable test cases", selected.size(), tagIndex.size());
+        return selected;
+    }
+
+    private void execute(List<TestCaseGroup> groups, int threads) {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), WorkerThreads.named("e2e-worker-"));
+        // One runner per worker so each binds to its own thread's TestContext
+        ThreadLocal<APITestCaseRunner> runners = ThreadLocal.withInitial(APITestCaseRunner::new);
+        List<Future<?>> futures = new ArrayList<>();
+        for (TestCaseGroup group : groups) {
+            futures.add(workers.submit(() -> {
+                for (APITestCase testCase : group.getTestCases()) {
+                    runners.get().run(testCase);
+                }
+            }));
+        }
+        workers.shutdown();
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+            throw new TestException("Headless run interrupted", e);
+        } catch (ExecutionException e) {
+            workers.shutdownNow();
+            throw new TestException("Headless run aborted", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package api;
+
+import api.model.ResultSummary;
+import api.model.TestResult;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Builds a compact HTML summary from a JSONL result file in one streaming pass: totals, results
+ * per endpoint, the slowest cases, a row for every failure and, when given, the comparison with
+ * the performance baseline with slower TCIDs and endpoints highlighted.
+ * <p>
+ * Usage: {@code java -cp <classpath> api.HtmlSummaryWriter <results.jsonl> <report.html>}, or
+ * {@code -DhtmlReport=true} to write it at the end of a run.
+ */
+public class HtmlSummaryWriter {
+    private static final Logger logger = LoggerFactory.getLogger(HtmlSummaryWriter.class);
+    private static final int SLOWEST_CASES = 10;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: HtmlSummaryWriter <results.jsonl> <report.html>");
+            System.exit(2);
+        }
+        new HtmlSummaryWriter().write(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    public void write(Path resultFile, Path htmlFile) {
+        write(resultFile, htmlFile, Collections.<PerformanceBaseline.Comparison>emptyList());
+    }
+
+    public void write(Path resultFile, Path htmlFile, List<PerformanceBaseline.Comparison> comparisons) {
+        ResultSummary summary = new ResultSummary();
+        Map<String, ResultSummary> byEndpoint = new TreeMap<>();
+        // Min-heap holding the slowest cases seen so far
+        PriorityQueue<TestResult> slowest = new PriorityQueue<>(Comparator.comparingLong(TestResult::getDurationMs));
+        Path failureRows = Paths.get(htmlFile + ".part");
+        try {
+            if (htmlFile.getParent() != null) {
+                Files.createDirectories(htmlFile.getParent());
+            }
+            try (BufferedReader reader = Files.newBufferedReader(resultFile, StandardCharsets.UTF_8);
+                 BufferedWriter failures = Files.newBufferedWriter(failureRows, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    TestResult result = objectMapper.readValue(line, TestResult.class);
+                    summary.add(result);
+                    byEndpoint.computeIfAbsent(String.valueOf(result.getEndpointKey()), k -> new ResultSummary()).add(result);
+                    slowest.add(result);
+                    if (slowest.size() > SLOWEST_CASES) {
+                        slowest.poll();
+                    }
+                    if (result.getStatus() == TestResult.Status.FAILED) {
+                        failures.write(row(result.getTCID(), result.getEndpointKey(), result.getStatusCode(),
+                                result.getDurationMs(), result.getMessage()));
+                    }
+                }
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(htmlFile, StandardCharsets.UTF_8)) {
+                out.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>API test summary</title>\n");
+                out.write("<style>body{font-family:sans-serif}table{border-collapse:collapse}td,th{border:1px solid #ccc;padding:2px 6px;text-align:left}</style>\n");
+                out.write("</head><body>\n<h1>API test summary</h1>\n<table>\n");
+                out.write("<tr><th>Total</th><th>Passed</th><th>Failed</th><th>Skipped</th><th>Duration (s)</th></tr>\n");
+                out.write(row(summary.getTotal(), summary.getPassed(), summary.getFailed(), summary.getSkipped(),
+                        summary.getTotalDurationMs() / 1000.0));
+                out.write("</table>\n<h2>Endpoints</h2>\n<table>\n");
+                out.write("<tr><th>Endpoint</th><th>Passed</th><th>Failed</th><th>Skipped</th><th>Duration (s)</th></tr>\n");
+                for (Map.Entry<String, ResultSummary> entry : byEndpoint.entrySet()) {
+                    ResultSummary endpoint = entry.getValue();
+                    out.write(row(entry.getKey(), endpoint.getPassed(), endpoint.getFailed(), endpoint.getSkipped(),
+                            endpoint.getTotalDurationMs() / 1000.0));
+                }
+                out.write("</table>\n<h2>Slowest cases</h2>\n<table>\n");
+                out.write("<tr><th>TCID</th><th>Endpoint</th><th>Status</th><th>Duration (ms)</th></tr>\n");
+                List<TestResult> slowestFirst = new ArrayList<>(slowest);
+                slowestFirst.sort(Comparator.comparingLong(TestResult::getDurationMs).reversed());
+                for (TestResult result : slowestFirst) {
+                    out.write(row(result.getTCID(), result.getEndpointKey(), result.getStatus(), result.getDurationMs()));
+                }
+                out.write("</table>\n<h2>Failures</h2>\n<table>\n");
+                out.write("<tr><th>TCID</th><th>Endpoint</th><th>Status code</th><th>Duration (ms)</th><th>Message</th></tr>\n");
+                try (BufferedReader rows = Files.newBufferedReader(failureRows, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = rows.readLine()) != null) {
+                        out.write(line);
+                        out.newLine();
+                    }
+                }
+                out.write("</table>\n");
+                writePerformance(out, comparisons);
+                out.write("</body></html>\n");
+            }
+            Files.deleteIfExists(failureRows);
+            logger.info("Wrote HTML summary to {}", htmlFile.toAbsolutePath());
+        } catch (IOException e) {
+            throw new TestException("Failed to write HTML summary to " + htmlFile, e);
+        }
+    }
+
+    private static void writePerformance(BufferedWriter out, List<PerformanceBaseline.Comparison> comparisons) throws IOException {
+        if (comparisons.isEmpty()) {
+            return;
+        }
+        List<PerformanceBaseline.Comparison> ordered = new ArrayList<>(comparisons);
+        // Regressions first, then by the largest median shift
+        ordered.sort(Comparator.comparing((PerformanceBaseline.Comparison c) -> !c.isRegressed())
+                .thenComparing(c -> c.getBaselineP50() - c.getP50()));
+        out.write("<h2>Performance since the last green runs</h2>\n<table>\n");
+        out.write("<tr><th>TCID / endpoint</th><th>Median (ms)</th><th>Baseline median (ms)</th><th>p95 (ms)</th>"
+                + "<th>Baseline p95 (ms)</th><th>Throughput (/s)</th><th>Baseline throughput (/s)</th><th>p-value</th><th>Slower</th></tr>\n");
+        for (PerformanceBaseline.Comparison comparison : ordered) {
+            String cells = row(comparison.getKey(), comparison.getP50(),
+                    comparison.getBaselineRuns() == 0 ? "" : comparison.getBaselineP50(), comparison.getP95(),
+                    comparison.getBaselineRuns() == 0 ? "" : comparison.getBaselineP95(),
+                    String.format("%.2f", comparison.getThroughputPerSecond()),
+                    comparison.getBaselineRuns() == 0 ? "" : String.format("%.2f", comparison.getBaselineThroughputPerSecond()),
+                    comparison.getPValue() == null ? "" : String.format("%.4f", comparison.getPValue()),
+                    comparison.isRegressed() ? "yes" : "");
+            out.write(comparison.isRegressed() ? cells.replaceFirst("<tr>", "<tr style=\"background:#fdd\">") : cells);
+        }
+        out.write("</table>\n");
+    }
+
+    private static String row(Object... cells) {
+        StringBuilder row = new StringBuilder("<tr>");
+        for (Object cell : cells) {
+            row.append("<td>").append(escape(cell == null ? "" : String.valueOf(cell))).append("</td>");
+        }
+        return row.append("</tr>\n").toString();
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                case '\n': escaped.append("<br>"); break;
+                case '\r': break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,227 @@
+package api;
+
+import api.model.APITestCase;
+import api.model.TestResult;
+import api.util.JsonFileStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Remembers the last outcome of every test case together with a fingerprint of its Excel row,
+ * the templates it renders and its endpoint configuration. With {@code -Dincremental=true} only
+ * cases whose fingerprint changed, that failed or never ran last time, and the cases depending
+ * on them are selected.
+ * <p>
+ * The fingerprint of a case includes the fingerprints of its [TestSetup]/[TestTearDown] and
+ * dynamic validation TCIDs, so editing a shared setup row reruns everything that uses it.
+ */
+public class IncrementalRunManager {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalRunManager.class);
+    private static volatile IncrementalRunManager instance;
+
+    private final APITestCaseManager apiTestCaseManager;
+    private final APIConfigManager apiConfigManager;
+    private final JsonSchemaValidator jsonSchemaValidator;
+    private final JsonFileStore<Outcome> store;
+    private final Map<String, Outcome> previousOutcomes;
+    private final Map<String, Outcome> updates = new HashMap<>();
+    private final Map<String, String> fingerprints = new HashMap<>();
+    private Set<String> selectedTCIDs;
+
+    private IncrementalRunManager() {
+        this.apiTestCaseManager = new APITestCaseManager();
+        this.apiConfigManager = APIConfigManager.getInstance();
+        this.jsonSchemaValidator = new JsonSchemaValidator();
+        this.store = new JsonFileStore<>(Paths.get(RunOptions.getOutcomeStoreFile()),
+                new TypeReference<Map<String, Outcome>>() {});
+        this.previousOutcomes = store.read();
+    }
+
+    public static IncrementalRunManager getInstance() {
+        if (instance == null) {
+            synchronized (IncrementalRunManager.class) {
+                if (instance == null) {
+                    instance = new IncrementalRunManager();
+                    Runtime.getRuntime().addShutdownHook(new Thread(instance::save));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public boolean isSelected(String tcid) {
+        if (!RunOptions.isIncremental()) {
+            return true;
+        }
+        return getSelectedTCIDs().contains(tcid);
+    }
+
+    public synchronized Set<String> getSelectedTCIDs() {
+        if (selectedTCIDs == null) {
+            List<APITestCase> runnable = apiTestCaseManager.getRunnableTestCases();
+            Set<String> selected = new HashSet<>();
+            for (APITestCase testCase : runnable) {
+                Outcome previous = previousOutcomes.get(storeKey(testCase.getTCID()));
+                if (previous == null
+                        || previous.getStatus() != TestResult.Status.PASSED
+                        || !previous.getFingerprint().equals(getFingerprint(testCase.getTCID()))) {
+                    selected.add(testCase.getTCID());
+                }
+            }
+            selected.addAll(getDependents(runnable, selected));
+            selectedTCIDs = Collections.unmodifiableSet(selected);
+            logger.info("Incremental run selected {} of {} runnable test cases", selected.size(), runnable.size());
+        }
+        return selectedTCIDs;
+    }
+
+    public synchronized void recordOutcome(TestResult result) {
+        if (result.getStatus() == TestResult.Status.SKIPPED) {
+            return;
+        }
+        Outcome outcome = new Outcome();
+        outcome.setFingerprint(getFingerprint(result.getTCID()));
+        outcome.setStatus(result.getStatus());
+        updates.put(storeKey(result.getTCID()), outcome);
+    }
+
+    public synchronized String getFingerprint(String tcid) {
+        return fingerprint(tcid, new HashSet<>());
+    }
+
+    /**
+     * Drops cached fingerprints and the selection, e.g. after cases, templates or configuration
+     * changed on disk. Recorded outcomes are kept.
+     */
+    public synchronized void clearCache() {
+        fingerprints.clear();
+        selectedTCIDs = null;
+    }
+
+    public synchronized void save() {
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            store.merge(updates);
+            logger.info("Saved {} test case outcomes to {}", updates.size(), store.getFile().toAbsolutePath());
+            updates.clear();
+        } catch (IOException e) {
+            logger.warn("Failed to save test case outcomes to {}", store.getFile(), e);
+        }
+    }
+
+    private String fingerprint(String tcid, Set<String> visiting) {
+        String cached = fingerprints.get(tcid);
+        if (cached != null) {
+            return cached;
+        }
+        if (!visiting.add(tcid)) {
+            // Circular conditions: the cycle is already covered by the outer fingerprint
+            return "cycle:" + tcid;
+        }
+        APITestCase testCase;
+        try {
+            testCase = apiTestCaseManager.getTestCaseByTCID(tcid);
+        } catch (IllegalArgumentException e) {
+            return "missing:" + tcid;
+        }
+        Map<String, Object> endpointConfig;
+        try {
+            endpointConfig = apiConfigManager.getEndpointConfig(testCase.getEndpointKey());
+        } catch (IllegalArgumentException e) {
+            // Unknown endpoint key: the case fails when run, the other cases keep their fingerprints
+            return "invalid:" + tcid;
+        }
+        StringBuilder content = new StringBuilder();
+        content.append(apiConfigManager.getCurrentEnvironment()).append('\n');
+        appendRow(content, testCase);
+        content.append(new TreeMap<>(endpointConfig)).append('\n');
+        content.append(APIRequestTemplateProcessor.getTemplateSource(testCase.getHeadersTemplateKey())).append('\n');
+        content.append(APIRequestTemplateProcessor.getTemplateSource(testCase.getBodyTemplateKey())).append('\n');
+        String schemaName = jsonSchemaValidator.getSchemaName(testCase);
+        if (schemaName != null) {
+            content.append(JsonSchemaValidator.getSchemaSource(apiConfigManager.getCurrentProject(), schemaName)).append('\n');
+        }
+        for (String dependency : getDependencies(testCase)) {
+            content.append(dependency).append('=').append(fingerprint(dependency, visiting)).append('\n');
+        }
+        String fingerprint = sha256(content.toString());
+        fingerprints.put(tcid, fingerprint);
+        return fingerprint;
+    }
+
+    private void appendRow(StringBuilder content, APITestCase testCase) {
+        List<Object> row = Arrays.asList(
+                testCase.getTCID(), testCase.getName(), testCase.getConditions(), testCase.getEndpointKey(),
+                testCase.getHeadersTemplateKey(), testCase.getHeaderOverride(), testCase.getBodyTemplateKey(),
+                testCase.getBodyOverride(), testCase.getExpStatus(), testCase.getExpResult(), testCase.getSaveFields(),
+                testCase.getDynamicValidationTCID(), testCase.getDynamicValidationExpectedChanges(),
+                testCase.getQueryParams(), testCase.getPathParams(), testCase.getSchema(), testCase.getMaxResponseTime());
+        for (Object value : row) {
+            content.append(value).append('\u0001');
+        }
+        content.append('\n');
+    }
+
+    private SortedSet<String> getDependencies(APITestCase testCase) {
+        SortedSet<String> dependencies = new TreeSet<>(apiTestCaseManager.getDependencyTCIDs(testCase));
+        dependencies.addAll(testCase.getValidationPlan().getValidationTCIDs());
+        return dependencies;
+    }
+
+    private Set<String> getDependents(List<APITestCase> runnable, Set<String> selected) {
+        Map<String, List<String>> dependentsByTCID = new HashMap<>();
+        for (APITestCase testCase : runnable) {
+            for (String dependency : getDependencies(testCase)) {
+                dependentsByTCID.computeIfAbsent(dependency, k -> new ArrayList<>()).add(testCase.getTCID());
+            }
+        }
+        Set<String> dependents = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>(selected);
+        while (!queue.isEmpty()) {
+            for (String dependent : dependentsByTCID.getOrDefault(queue.poll(), Collections.emptyList())) {
+                if (!selected.contains(dependent) && dependents.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return dependents;
+    }
+
+    private String storeKey(String tcid) {
+        return apiConfigManager.getCurrentProject() + "/" + apiConfigManager.getCurrentEnvironment() + "/" + tcid;
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class Outcome {
+        private String fingerprint;
+        private TestResult.Status status;
+
+        public String getFingerprint() { return fingerprint; }
+        public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+        public TestResult.Status getStatus() { return status; }
+        public void setStatus(TestResult.Status status) { this.status = status; }
+    }
+}
@@ -0,0 +1,125 @@
+package api;
+
+import api.model.ResultSummary;
+import api.model.TestResult;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Streams test results in the JUnit XML format understood by CI servers.
+ * <p>
+ * Test cases are written to a {@code .part} file as they are appended; the suite totals are only
+ * known at the end, so {@link #close()} writes the {@code <testsuite>} element and copies the
+ * test cases behind it. Memory use does not depend on the number of results.
+ */
+public class JUnitXmlReportWriter implements Closeable {
+    private final String suiteName;
+    private final Path file;
+    private final Path partFile;
+    private final ResultSummary summary = new ResultSummary();
+    private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+    private OutputStream partOut;
+
+    public JUnitXmlReportWriter(String suiteName, Path file) {
+        this.suiteName = suiteName;
+        this.file = file;
+        this.partFile = Paths.get(file + ".part");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            partOut = new BufferedOutputStream(Files.newOutputStream(partFile));
+        } catch (IOException e) {
+            throw new TestException("Failed to open JUnit XML report " + file, e);
+        }
+    }
+
+    public synchronized void append(TestResult result) {
+        if (partOut == null) {
+            throw new TestException("JUnit XML report " + file + " is already closed");
+        }
+        try {
+            // A writer per test case: the part file holds a sequence of elements, not a document
+            XMLStreamWriter xml = xmlOutputFactory.createXMLStreamWriter(partOut, "UTF-8");
+            writeTestCase(xml, result);
+            xml.close();
+            partOut.flush();
+            summary.add(result);
+        } catch (IOException | XMLStreamException e) {
+            throw new TestException("Failed to write JUnit XML report to " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (partOut == null) {
+            return;
+        }
+        try {
+            partOut.close();
+            partOut = null;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                XMLStreamWriter xml = xmlOutputFactory.createXMLStreamWriter(out, "UTF-8");
+                xml.writeStartDocument("UTF-8", "1.0");
+                xml.writeStartElement("testsuite");
+                xml.writeAttribute("name", suiteName);
+                xml.writeAttribute("tests", String.valueOf(summary.getTotal()));
+                xml.writeAttribute("failures", String.valueOf(summary.getFailed()));
+                xml.writeAttribute("errors", "0");
+                xml.writeAttribute("skipped", String.valueOf(summary.getSkipped()));
+                xml.writeAttribute("time", seconds(summary.getTotalDurationMs()));
+                // Close the start tag before the raw test case elements are copied in
+                xml.writeCharacters("");
+                xml.flush();
+                Files.copy(partFile, out);
+                xml.writeEndElement();
+                xml.writeEndDocument();
+                xml.close();
+            }
+            Files.deleteIfExists(partFile);
+        } catch (IOException | XMLStreamException e) {
+            throw new TestException("Failed to write JUnit XML report to " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private void writeTestCase(XMLStreamWriter xml, TestResult result) throws XMLStreamException {
+        xml.writeStartElement("testcase");
+        xml.writeAttribute("classname", String.valueOf(result.getEndpointKey()));
+        xml.writeAttribute("name", result.getTCID() + (result.getName() == null ? "" : " " + result.getName()));
+        xml.writeAttribute("time", seconds(result.getDurationMs()));
+        if (result.getRequestFingerprint() != null) {
+            xml.writeStartElement("properties");
+            xml.writeEmptyElement("property");
+            xml.writeAttribute("name", "requestFingerprint");
+            xml.writeAttribute("value", result.getRequestFingerprint());
+            xml.writeEndElement();
+        }
+        if (result.getStatus() == TestResult.Status.FAILED) {
+            xml.writeStartElement("failure");
+            xml.writeAttribute("message", String.valueOf(result.getMessage()));
+            xml.writeCharacters(String.valueOf(result.getMessage()));
+            xml.writeEndElement();
+        } else if (result.getStatus() == TestResult.Status.SKIPPED) {
+            xml.writeEmptyElement("skipped");
+        }
+        xml.writeEndElement();
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+}
@@ -0,0 +1,110 @@
+package api;
+
+import api.model.APIResponse;
+import api.model.APITestCase;
+import api.util.JsonSchema;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validates response bodies against JSON Schemas under {@code /schemas/<project>} on the
+ * classpath. The schema is named by the Schema column of a test case or, for all cases of an
+ * endpoint, by its {@code schema} entry in api-endpoint-config.yaml:
+ * <pre>
+ * endpoints:
+ *   summary:
+ *     method: POST
+ *     url: ...
+ *     schema: summary.schema.json
+ * </pre>
+ * Each schema is compiled once per project and reused; the body already parsed by
+ * {@link APIResponse} is validated, and the time taken is added to the response's validation time.
+ */
+public class JsonSchemaValidator {
+    private static final Logger logger = LoggerFactory.getLogger(JsonSchemaValidator.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Map<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+    private final APIConfigManager apiConfigManager;
+
+    public JsonSchemaValidator() {
+        this.apiConfigManager = APIConfigManager.getInstance();
+    }
+
+    public void verifySchema(APITestCase testCase, APIResponse response) {
+        List<String> violations = findViolations(testCase, response);
+        if (!violations.isEmpty()) {
+            throw new AssertionError(String.format("Response of %s does not match schema %s: %s",
+                    testCase.getTCID(), getSchemaName(testCase), String.join("; ", violations)));
+        }
+    }
+
+    /**
+     * Returns the schema violations of the response, or an empty list when the case has no schema.
+     */
+    public List<String> findViolations(APITestCase testCase, APIResponse response) {
+        String schemaName = getSchemaName(testCase);
+        if (schemaName == null) {
+            return Collections.emptyList();
+        }
+        JsonSchema schema = getSchema(apiConfigManager.getCurrentProject(), schemaName);
+        long start = System.nanoTime();
+        List<String> violations = schema.validate(response.getBodyAsObject());
+        long elapsed = System.nanoTime() - start;
+        response.addValidationTime(elapsed);
+        logger.info("Validated response of {} against schema {} in {} us: {} violation(s)",
+                testCase.getTCID(), schemaName, elapsed / 1000, violations.size());
+        return violations;
+    }
+
+    public String getSchemaName(APITestCase testCase) {
+        if (testCase.getSchema() != null && !testCase.getSchema().trim().isEmpty()) {
+            return testCase.getSchema().trim();
+        }
+        Object schema = apiConfigManager.getEndpointConfig(testCase.getEndpointKey()).get("schema");
+        return schema == null || schema.toString().trim().isEmpty() ? null : schema.toString().trim();
+    }
+
+    public static JsonSchema getSchema(String project, String name) {
+        return schemas.computeIfAbsent(project + "/" + name, key -> {
+            try {
+                JsonSchema schema = JsonSchema.compile(objectMapper.readValue(getSchemaSource(project, name), Object.class));
+                logger.info("Compiled JSON schema {} for project {}", name, project);
+                return schema;
+            } catch (IOException e) {
+                throw new TestException.ConfigurationException("Invalid JSON schema " + name + " for project " + project, e);
+            }
+        });
+    }
+
+    public static String getSchemaSource(String project, String name) {
+        String resource = "/schemas/" + project + "/" + name;
+        try (InputStream in = JsonSchemaValidator.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new TestException.ConfigurationException("JSON schema not found on the classpath: " + resource);
+            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new TestException.ConfigurationException("Failed to read JSON schema " + resource, e);
+        }
+    }
+
+    public static void clearCache() {
+        schemas.clear();
+    }
+}
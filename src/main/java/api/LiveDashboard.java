@@ -0,0 +1,95 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link LiveMetrics} of the running JVM on localhost: {@code /metrics} as JSON and
+ * {@code /} as a page refreshing it every two seconds. Enabled with {@code -Ddashboard=true},
+ * on {@code -DdashboardPort} (default 8099, 0 picks a free port). The server runs on one daemon
+ * thread and only reads counters, so an open dashboard does not slow the run down.
+ */
+public class LiveDashboard {
+    private static final Logger logger = LoggerFactory.getLogger(LiveDashboard.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static volatile HttpServer server;
+
+    private LiveDashboard() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void startIfEnabled() {
+        if (!RunOptions.isDashboard() || server != null) {
+            return;
+        }
+        synchronized (LiveDashboard.class) {
+            if (server != null) {
+                return;
+            }
+            try {
+                HttpServer created = HttpServer.create(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), RunOptions.getDashboardPort()), 0);
+                created.createContext("/metrics", exchange -> respond(exchange, "application/json",
+                        objectMapper.writeValueAsBytes(LiveMetrics.snapshot())));
+                created.createContext("/", exchange -> respond(exchange, "text/html", PAGE.getBytes(StandardCharsets.UTF_8)));
+                created.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "e2e-dashboard");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+                created.start();
+                server = created;
+                logger.info("Live dashboard at http://127.0.0.1:{}/", created.getAddress().getPort());
+            } catch (IOException e) {
+                logger.warn("Failed to start live dashboard on port {}", RunOptions.getDashboardPort(), e);
+            }
+        }
+    }
+
+    public static void stop() {
+        synchronized (LiveDashboard.class) {
+            if (server != null) {
+                server.stop(0);
+                server = null;
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static final String PAGE = "<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>API test run</title>\n"
+            + "<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:1em}"
+            + "td,th{border:1px solid #ccc;padding:2px 6px;text-align:left}</style>\n</head><body>\n"
+            + "<h1>API test run</h1><div id=\"content\">Loading...</div>\n<script>\n"
+            + "function table(headers, rows){return '<table><tr>'+headers.map(h=>'<th>'+h+'</th>').join('')+'</tr>'"
+            + "+rows.map(r=>'<tr>'+r.map(c=>'<td>'+c+'</td>').join('')+'</tr>').join('')+'</table>';}\n"
+            + "function render(m){let h=table(['Completed','Passed','Failed','Skipped','In flight','Requests','Requests/s','Uptime (s)'],"
+            + "[[m.completed,m.passed,m.failed,m.skipped,m.inFlight,m.requests,m.requestsPerSecond.toFixed(1),m.uptimeSeconds]]);\n"
+            + "h+='<h2>Endpoints</h2>'+table(['Endpoint','Requests','Mean (ms)','p50','p90','p95','p99'],"
+            + "Object.entries(m.endpoints).map(([k,e])=>[k,e.requests,e.meanMs,e.p50Ms,e.p90Ms,e.p95Ms,e.p99Ms]));\n"
+            + "h+='<h2>Connections per host</h2>'+table(['Host','In flight','Max in flight'],"
+            + "Object.entries(m.hosts).map(([k,c])=>[k,c.inFlight,c.maxInFlight]));\n"
+            + "h+='<h2>Rate limits</h2>'+table(['Limit','In flight','Requests','Waited','Total wait (ms)','Max wait (ms)'],"
+            + "Object.entries(m.rateLimits).map(([k,l])=>[k,l.inFlight,l.requests,l.waited,l.totalWaitMs,l.maxWaitMs]));\n"
+            + "h+='<h2>Coalesced requests</h2>'+table(['Endpoint','Calls saved'],Object.entries(m.coalescedRequests));\n"
+            + "document.getElementById('content').innerHTML=h;}\n"
+            + "function poll(){fetch('metrics').then(r=>r.json()).then(render).catch(()=>{}).finally(()=>setTimeout(poll,2000));}\n"
+            + "poll();\n</script>\n</body></html>\n";
+}
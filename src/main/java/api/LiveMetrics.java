@@ -0,0 +1,198 @@
+package api;
+
+import api.model.TestResult;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress and request counters of the running JVM, read by {@link LiveDashboard}. Updates are
+ * lock-free (adders, atomic arrays and per-key counters created once), so the request path pays
+ * a few atomic increments per request. Latencies go into logarithmic buckets, which makes the
+ * reported percentiles accurate to about 10%.
+ */
+public class LiveMetrics {
+    private static final int WINDOW_SECONDS = 60;
+    private static final int RATE_SECONDS = 10;
+    private static final long startedAtMs = System.currentTimeMillis();
+
+    private static final LongAdder casesStarted = new LongAdder();
+    private static final LongAdder casesPassed = new LongAdder();
+    private static final LongAdder casesFailed = new LongAdder();
+    private static final LongAdder casesSkipped = new LongAdder();
+    private static final LongAdder requests = new LongAdder();
+    // Requests per second of the last minute, slot = second % WINDOW_SECONDS
+    private static final AtomicLongArray requestsPerSecond = new AtomicLongArray(WINDOW_SECONDS);
+    private static final AtomicLongArray slotSeconds = new AtomicLongArray(WINDOW_SECONDS);
+    private static final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private static final Map<String, HostConnections> connections = new ConcurrentHashMap<>();
+
+    private LiveMetrics() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void caseStarted() {
+        casesStarted.increment();
+    }
+
+    public static void caseFinished(TestResult result) {
+        switch (result.getStatus()) {
+            case PASSED:
+                casesPassed.increment();
+                break;
+            case FAILED:
+                casesFailed.increment();
+                break;
+            default:
+                casesSkipped.increment();
+        }
+    }
+
+    public static void requestStarted(String host) {
+        connections.computeIfAbsent(host, k -> new HostConnections()).open();
+    }
+
+    public static void requestFinished(String endpointKey, String host, long elapsedNanos) {
+        connections.computeIfAbsent(host, k -> new HostConnections()).close();
+        latencies.computeIfAbsent(endpointKey, k -> new LatencyHistogram()).record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        requests.increment();
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        long stamp = slotSeconds.get(slot);
+        // The first request of a new second resets the slot; a racing increment may be lost
+        if (stamp != second && slotSeconds.compareAndSet(slot, stamp, second)) {
+            requestsPerSecond.set(slot, 0);
+        }
+        requestsPerSecond.incrementAndGet(slot);
+    }
+
+    /**
+     * Returns a point-in-time view of all counters, suitable for JSON serialization.
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long passed = casesPassed.sum();
+        long failed = casesFailed.sum();
+        long skipped = casesSkipped.sum();
+        long completed = passed + failed + skipped;
+        snapshot.put("uptimeSeconds", (System.currentTimeMillis() - startedAtMs) / 1000);
+        snapshot.put("completed", completed);
+        snapshot.put("passed", passed);
+        snapshot.put("failed", failed);
+        snapshot.put("skipped", skipped);
+        snapshot.put("inFlight", Math.max(0, casesStarted.sum() - completed));
+        snapshot.put("requests", requests.sum());
+        snapshot.put("requestsPerSecond", getRecentRequestsPerSecond());
+
+        Map<String, Object> endpoints = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            endpoints.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        snapshot.put("endpoints", endpoints);
+
+        Map<String, Object> hosts = new TreeMap<>();
+        for (Map.Entry<String, HostConnections> entry : connections.entrySet()) {
+            Map<String, Object> host = new LinkedHashMap<>();
+            host.put("inFlight", entry.getValue().inFlight.get());
+            host.put("maxInFlight", entry.getValue().maxInFlight.get());
+            hosts.put(entry.getKey(), host);
+        }
+        snapshot.put("hosts", hosts);
+
+        Map<String, Object> limits = new TreeMap<>();
+        for (Map.Entry<String, RequestThrottle.Limit> entry : RequestThrottle.getLimits().entrySet()) {
+            RequestThrottle.Limit limit = entry.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("inFlight", limit.getInFlight());
+            stats.put("requests", limit.getRequests());
+            stats.put("waited", limit.getWaitedRequests());
+            stats.put("totalWaitMs", TimeUnit.NANOSECONDS.toMillis(limit.getTotalWaitNanos()));
+            stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(limit.getMaxWaitNanos()));
+            limits.put(entry.getKey(), stats);
+        }
+        snapshot.put("rateLimits", limits);
+        snapshot.put("coalescedRequests", RequestCoalescer.getSavedCalls());
+        return snapshot;
+    }
+
+    // Average over the last completed seconds, so the current partial second does not drag it down
+    private static double getRecentRequestsPerSecond() {
+        long now = System.currentTimeMillis() / 1000;
+        long count = 0;
+        for (long second = now - RATE_SECONDS; second < now; second++) {
+            int slot = (int) (second % WINDOW_SECONDS);
+            if (slotSeconds.get(slot) == second) {
+                count += requestsPerSecond.get(slot);
+            }
+        }
+        return count / (double) RATE_SECONDS;
+    }
+
+    private static class HostConnections {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        void open() {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        }
+
+        void close() {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Counts latencies in buckets growing by 10%, from 1 ms to about 10 minutes.
+     */
+    static class LatencyHistogram {
+        private static final double GROWTH = 1.1;
+        private static final int BUCKETS = 140;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+
+        void record(long millis) {
+            int bucket = millis <= 1 ? 0 : (int) Math.min(BUCKETS - 1, Math.ceil(Math.log(millis) / Math.log(GROWTH)));
+            counts.incrementAndGet(bucket);
+            count.increment();
+            totalMs.add(millis);
+        }
+
+        Map<String, Object> snapshot() {
+            long[] copy = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                total += copy[i];
+            }
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("requests", total);
+            snapshot.put("meanMs", total == 0 ? 0 : totalMs.sum() / count.sum());
+            snapshot.put("p50Ms", percentile(copy, total, 50));
+            snapshot.put("p90Ms", percentile(copy, total, 90));
+            snapshot.put("p95Ms", percentile(copy, total, 95));
+            snapshot.put("p99Ms", percentile(copy, total, 99));
+            return snapshot;
+        }
+
+        // Upper bound of the bucket holding the requested rank
+        private static long percentile(long[] counts, long total, double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i == 0 ? 1 : (long) Math.ceil(Math.pow(GROWTH, i));
+                }
+            }
+            return (long) Math.ceil(Math.pow(GROWTH, counts.length - 1));
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package api;
+
+import api.model.LatencyBudget;
+import api.model.TestResult;
+import api.util.JsonFileStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Keeps the response times of the last green runs per TCID and per endpoint key in a local store
+ * and compares every run against them. A TCID or endpoint is flagged as slower when its median
+ * grew by more than {@code -DregressionThreshold} percent (and at least 5 ms) and, with five or
+ * more samples on both sides, a one-sided Mann-Whitney U test puts the shift below a 1% chance.
+ * <p>
+ * Enabled with {@code -DperformanceBaseline=true}: the comparison is written to
+ * {@code performance.json} next to the results and into the HTML summary. Only runs without
+ * failures are added to the baseline, so the comparison is always against the last green runs.
+ */
+public class PerformanceBaseline {
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceBaseline.class);
+    private static final double SIGNIFICANCE = 0.01;
+    private static final int MIN_SAMPLES_FOR_TEST = 5;
+    private static final long MIN_SHIFT_MS = 5;
+    // Samples kept per run and key, so a long run does not grow the store without bound
+    private static final int MAX_SAMPLES_PER_RUN = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final JsonFileStore<History> store;
+    private final APIConfigManager apiConfigManager;
+
+    public PerformanceBaseline() {
+        this.store = new JsonFileStore<>(Paths.get(RunOptions.getBaselineStoreFile()),
+                new TypeReference<Map<String, History>>() {});
+        this.apiConfigManager = APIConfigManager.getInstance();
+    }
+
+    /**
+     * Compares the results in {@code resultFile} with the baseline, writes the comparison to
+     * {@code reportFile} and, when no case failed, adds this run to the baseline.
+     */
+    public List<Comparison> compare(Path resultFile, Path reportFile, long wallClockMs) {
+        Map<String, List<Long>> samplesByKey = new TreeMap<>();
+        boolean green = readSamples(resultFile, samplesByKey);
+        Map<String, History> histories = store.read();
+        long runAt = System.currentTimeMillis();
+        double seconds = Math.max(1, wallClockMs) / 1000.0;
+
+        List<Comparison> comparisons = new ArrayList<>();
+        Map<String, History> updates = new HashMap<>();
+        for (Map.Entry<String, List<Long>> entry : samplesByKey.entrySet()) {
+            String storeKey = storeKey(entry.getKey());
+            History history = histories.get(storeKey);
+            RunStats current = new RunStats();
+            current.setRunAt(runAt);
+            current.setSamples(downsample(entry.getValue()));
+            current.setThroughputPerSecond(entry.getValue().size() / seconds);
+            Comparison comparison = compare(entry.getKey(), entry.getValue(), current.getThroughputPerSecond(), history);
+            comparisons.add(comparison);
+            if (comparison.isRegressed()) {
+                logger.warn("{} got slower since the last green runs: median {} ms -> {} ms, p95 {} ms -> {} ms (p = {})",
+                        entry.getKey(), comparison.getBaselineP50(), comparison.getP50(), comparison.getBaselineP95(),
+                        comparison.getP95(), comparison.getPValue() == null ? "n/a" : String.format("%.4f", comparison.getPValue()));
+            }
+            if (green) {
+                History update = new History();
+                update.setRuns(new ArrayList<>(Collections.singletonList(current)));
+                updates.put(storeKey, update);
+            }
+        }
+
+        writeReport(reportFile, comparisons);
+        if (green && !updates.isEmpty()) {
+            try {
+                // Appended to the history as stored now, not as read above
+                store.merge(updates, PerformanceBaseline::append);
+                logger.info("Added this run to the performance baseline in {}", store.getFile().toAbsolutePath());
+            } catch (IOException e) {
+                logger.warn("Failed to save performance baseline to {}", store.getFile(), e);
+            }
+        } else if (!green) {
+            logger.info("Run has failures; performance baseline left unchanged");
+        }
+        return comparisons;
+    }
+
+    private boolean readSamples(Path resultFile, Map<String, List<Long>> samplesByKey) {
+        boolean green = true;
+        try (BufferedReader reader = Files.newBufferedReader(resultFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                TestResult result = objectMapper.readValue(line, TestResult.class);
+                if (result.getStatus() == TestResult.Status.FAILED) {
+                    green = false;
+                }
+                // Cases that never got a response, or shared one with another case, have no
+                // response time of their own to compare
+                if (result.getStatusCode() == null || result.isShared()) {
+                    continue;
+                }
+                samplesByKey.computeIfAbsent("tcid:" + result.getTCID(), k -> new ArrayList<>()).add(result.getResponseTimeMs());
+                samplesByKey.computeIfAbsent("endpoint:" + result.getEndpointKey(), k -> new ArrayList<>()).add(result.getResponseTimeMs());
+            }
+        } catch (IOException e) {
+            throw new TestException("Failed to read results from " + resultFile, e);
+        }
+        return green;
+    }
+
+    private Comparison compare(String key, List<Long> samples, double throughput, History history) {
+        long[] current = LatencyBudget.sort(samples);
+        Comparison comparison = new Comparison();
+        comparison.setKey(key);
+        comparison.setSamples(current.length);
+        comparison.setP50(LatencyBudget.percentile(current, 50));
+        comparison.setP95(LatencyBudget.percentile(current, 95));
+        comparison.setThroughputPerSecond(throughput);
+        if (history == null || history.getRuns().isEmpty()) {
+            return comparison;
+        }
+        List<Long> pooled = new ArrayList<>();
+        double throughputSum = 0;
+        for (RunStats run : history.getRuns()) {
+            pooled.addAll(run.getSamples());
+            throughputSum += run.getThroughputPerSecond();
+        }
+        long[] baseline = LatencyBudget.sort(pooled);
+        comparison.setBaselineRuns(history.getRuns().size());
+        comparison.setBaselineSamples(baseline.length);
+        comparison.setBaselineP50(LatencyBudget.percentile(baseline, 50));
+        comparison.setBaselineP95(LatencyBudget.percentile(baseline, 95));
+        comparison.setBaselineThroughputPerSecond(throughputSum / history.getRuns().size());
+        if (baseline.length == 0) {
+            return comparison;
+        }
+
+        long shift = comparison.getP50() - comparison.getBaselineP50();
+        boolean shifted = shift >= MIN_SHIFT_MS
+                && shift * 100 > comparison.getBaselineP50() * (long) RunOptions.getRegressionThresholdPercent();
+        if (current.length >= MIN_SAMPLES_FOR_TEST && baseline.length >= MIN_SAMPLES_FOR_TEST) {
+            comparison.setPValue(mannWhitneyGreater(current, baseline));
+            comparison.setRegressed(shifted && comparison.getPValue() < SIGNIFICANCE);
+        } else {
+            comparison.setRegressed(shifted);
+        }
+        return comparison;
+    }
+
+    /**
+     * One-sided p-value of the Mann-Whitney U test that {@code current} tends to be larger than
+     * {@code baseline}, using the normal approximation with tie correction.
+     */
+    static double mannWhitneyGreater(long[] current, long[] baseline) {
+        int n1 = current.length;
+        int n2 = baseline.length;
+        long[][] pooled = new long[n1 + n2][];
+        for (int i = 0; i < n1; i++) {
+            pooled[i] = new long[]{current[i], 1};
+        }
+        for (int i = 0; i < n2; i++) {
+            pooled[n1 + i] = new long[]{baseline[i], 0};
+        }
+        Arrays.sort(pooled, Comparator.comparingLong(value -> value[0]));
+
+        double rankSum = 0;
+        double tieTerm = 0;
+        int i = 0;
+        while (i < pooled.length) {
+            int j = i;
+            while (j + 1 < pooled.length && pooled[j + 1][0] == pooled[i][0]) {
+                j++;
+            }
+            double averageRank = (i + j + 2) / 2.0;
+            int ties = j - i + 1;
+            tieTerm += (double) ties * ties * ties - ties;
+            for (int k = i; k <= j; k++) {
+                if (pooled[k][1] == 1) {
+                    rankSum += averageRank;
+                }
+            }
+            i = j + 1;
+        }
+        double u = rankSum - n1 * (n1 + 1) / 2.0;
+        double n = n1 + n2;
+        double mean = n1 * (double) n2 / 2.0;
+        double variance = n1 * (double) n2 / 12.0 * ((n + 1) - tieTerm / (n * (n - 1)));
+        if (variance <= 0) {
+            return 1.0;
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 1.0 - normalCdf(z);
+    }
+
+    // Abramowitz and Stegun 7.1.26, accurate to about 1e-7
+    private static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1.0 / (1.0 + 0.3275911 * x);
+        double erf = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    private static History append(History stored, History update) {
+        List<RunStats> runs = new ArrayList<>(stored.getRuns());
+        runs.addAll(update.getRuns());
+        while (runs.size() > Math.max(1, RunOptions.getBaselineRuns())) {
+            runs.remove(0);
+        }
+        History appended = new History();
+        appended.setRuns(runs);
+        return appended;
+    }
+
+    private static List<Long> downsample(List<Long> samples) {
+        if (samples.size() <= MAX_SAMPLES_PER_RUN) {
+            return new ArrayList<>(samples);
+        }
+        long[] sorted = LatencyBudget.sort(samples);
+        List<Long> kept = new ArrayList<>(MAX_SAMPLES_PER_RUN);
+        for (int i = 0; i < MAX_SAMPLES_PER_RUN; i++) {
+            kept.add(sorted[(int) ((long) i * sorted.length / MAX_SAMPLES_PER_RUN)]);
+        }
+        return kept;
+    }
+
+    private void writeReport(Path reportFile, List<Comparison> comparisons) {
+        try {
+            if (reportFile.getParent() != null) {
+                Files.createDirectories(reportFile.getParent());
+            }
+            objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), comparisons);
+            logger.info("Wrote performance comparison to {}", reportFile.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Failed to write performance comparison to {}", reportFile, e);
+        }
+    }
+
+    private String storeKey(String key) {
+        return apiConfigManager.getCurrentProject() + "/" + apiConfigManager.getCurrentEnvironment() + "/" + key;
+    }
+
+    public static class History {
+        private List<RunStats> runs = new ArrayList<>();
+
+        public List<RunStats> getRuns() { return runs; }
+        public void setRuns(List<RunStats> runs) { this.runs = runs; }
+    }
+
+    public static class RunStats {
+        private long runAt;
+        private List<Long> samples = new ArrayList<>();
+        private double throughputPerSecond;
+
+        public long getRunAt() { return runAt; }
+        public void setRunAt(long runAt) { this.runAt = runAt; }
+
+        public List<Long> getSamples() { return samples; }
+        public void setSamples(List<Long> samples) { this.samples = samples; }
+
+        public double getThroughputPerSecond() { return throughputPerSecond; }
+        public void setThroughputPerSecond(double throughputPerSecond) { this.throughputPerSecond = throughputPerSecond; }
+    }
+
+    public static class Comparison {
+        private String key;
+        private int samples;
+        private long p50;
+        private long p95;
+        private double throughputPerSecond;
+        private int baselineRuns;
+        private int baselineSamples;
+        private long baselineP50;
+        private long baselineP95;
+        private double baselineThroughputPerSecond;
+        // Null when there were too few samples for the test
+        private Double pValue;
+        private boolean regressed;
+
+        // Getters and setters
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
+
+        public int getSamples() { return samples; }
+        public void setSamples(int samples) { this.samples = samples; }
+
+        public long getP50() { return p50; }
+        public void setP50(long p50) { this.p50 = p50; }
+
+        public long getP95() { return p95; }
+        public void setP95(long p95) { this.p95 = p95; }
+
+        public double getThroughputPerSecond() { return throughputPerSecond; }
+        public void setThroughputPerSecond(double throughputPerSecond) { this.throughputPerSecond = throughputPerSecond; }
+
+        public int getBaselineRuns() { return baselineRuns; }
+        public void setBaselineRuns(int baselineRuns) { this.baselineRuns = baselineRuns; }
+
+        public int getBaselineSamples() { return baselineSamples; }
+        public void setBaselineSamples(int baselineSamples) { this.baselineSamples = baselineSamples; }
+
+        public long getBaselineP50() { return baselineP50; }
+        public void setBaselineP50(long baselineP50) { this.baselineP50 = baselineP50; }
+
+        public long getBaselineP95() { return baselineP95; }
+        public void setBaselineP95(long baselineP95) { this.baselineP95 = baselineP95; }
+
+        public double getBaselineThroughputPerSecond() { return baselineThroughputPerSecond; }
+        public void setBaselineThroughputPerSecond(double baselineThroughputPerSecond) { this.baselineThroughputPerSecond = baselineThroughputPerSecond; }
+
+        public Double getPValue() { return pValue; }
+        public void setPValue(Double pValue) { this.pValue = pValue; }
+
+        public boolean isRegressed() { return regressed; }
+        public void setRegressed(boolean regressed) { this.regressed = regressed; }
+    }
+}
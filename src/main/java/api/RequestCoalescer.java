@@ -0,0 +1,109 @@
+package api;
+
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical read-only requests share one network call. With
+ * {@code -DcoalesceRequests=true}, a request whose fingerprint (method, resolved URL and
+ * parameters, headers and body) matches one already in flight waits for that call and gets the
+ * same response instead of sending its own. GET, HEAD and OPTIONS are coalesced; other endpoints
+ * opt in, and GET endpoints opt out, with {@code coalesce} in api-endpoint-config.yaml:
+ * <pre>
+ * get_data:
+ *   method: POST
+ *   url: ...
+ *   coalesce: true   # read-only POST
+ * </pre>
+ * Only requests that overlap in time are shared; nothing is cached once the call returns.
+ */
+public class RequestCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+    private static final Set<Method> READ_ONLY_METHODS = EnumSet.of(Method.GET, Method.HEAD, Method.OPTIONS);
+    private static final Map<String, CompletableFuture<Response>> inFlight = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> savedCalls = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RequestCoalescer::logStatistics));
+    }
+
+    private RequestCoalescer() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isCoalescable(APIConfigManager apiConfigManager, String endpointKey, Method method) {
+        if (!RunOptions.isCoalesceRequests()) {
+            return false;
+        }
+        Object configured = apiConfigManager.getEndpointConfig(endpointKey).get("coalesce");
+        return configured == null ? READ_ONLY_METHODS.contains(method) : Boolean.parseBoolean(String.valueOf(configured));
+    }
+
+    /**
+     * Sends the request through {@code call}, or waits for the identical request already in
+     * flight and returns its response.
+     */
+    public static Response execute(String endpointKey, String fingerprint, Supplier<Response> call) {
+        CompletableFuture<Response> own = new CompletableFuture<>();
+        CompletableFuture<Response> existing = inFlight.putIfAbsent(fingerprint, own);
+        if (existing != null) {
+            savedCalls.computeIfAbsent(endpointKey, k -> new LongAdder()).increment();
+            logger.info("Sharing the response of an identical in-flight {} request", endpointKey);
+            return await(existing);
+        }
+        try {
+            Response response = call.get();
+            // Read the body once so every sharer works on the buffered content
+            response.asByteArray();
+            own.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(fingerprint, own);
+        }
+    }
+
+    public static Map<String, Long> getSavedCalls() {
+        Map<String, Long> saved = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : savedCalls.entrySet()) {
+            saved.put(entry.getKey(), entry.getValue().sum());
+        }
+        return saved;
+    }
+
+    public static void logStatistics() {
+        for (Map.Entry<String, Long> entry : getSavedCalls().entrySet()) {
+            logger.info("Coalesced {} identical {} request(s) into calls already in flight", entry.getValue(), entry.getKey());
+        }
+    }
+
+    private static Response await(CompletableFuture<Response> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestException.RequestExecutionException("Interrupted while waiting for a shared request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TestException.RequestExecutionException("Shared request failed", cause);
+        }
+    }
+}
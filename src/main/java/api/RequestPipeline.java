@@ -0,0 +1,123 @@
+package api;
+
+import api.model.APITestCase;
+import api.model.PreparedRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Prepares the requests of a test case ahead of time on background threads, so template
+ * rendering and variable expansion overlap with the network waits of earlier requests. With
+ * {@code -DpipelinedPreparation=true} the runner prefetches the setup, pre-validation and main
+ * requests when a case starts; {@link APIRequestExecutor} then sends the prepared request
+ * instead of building it. Requests whose overrides or parameters use saved fields
+ * ({@code ${TCID.field}}) are not prefetched and are built when they are sent, after the fields
+ * exist.
+ * <p>
+ * Prefetched requests belong to the calling thread, like its {@link api.model.TestContext}, and
+ * each is sent at most once; sending the same test case again prepares it afresh. Generated
+ * values ({@code ${randomName}}, ...) come from the preparing thread's generator, so runs with a
+ * fixed {@code -Dseed} are only reproducible with pipelining off.
+ */
+public class RequestPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(RequestPipeline.class);
+    private static final Pattern SAVED_FIELD_PATTERN = Pattern.compile("\\$\\{[^}]*\\.[^}]*}");
+    private static final ThreadLocal<Map<APITestCase, Future<PreparedRequest>>> prefetched =
+            ThreadLocal.withInitial(IdentityHashMap::new);
+    private static volatile ExecutorService executor;
+
+    private RequestPipeline() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Starts preparing the requests of the given test cases that do not depend on saved fields.
+     */
+    public static void prefetch(APIRequestExecutor apiRequestExecutor, Collection<APITestCase> testCases) {
+        if (!RunOptions.isPipelinedPreparation()) {
+            return;
+        }
+        Map<APITestCase, Future<PreparedRequest>> futures = prefetched.get();
+        // The preparing thread resolves endpoints in the caller's environment
+        APIConfigManager apiConfigManager = APIConfigManager.getInstance();
+        String environment = apiConfigManager.getCurrentEnvironment();
+        for (APITestCase testCase : testCases) {
+            if (futures.containsKey(testCase) || dependsOnSavedFields(testCase)) {
+                continue;
+            }
+            futures.put(testCase, getExecutor().submit(() -> apiConfigManager.withEnvironment(environment,
+                    () -> apiRequestExecutor.prepare(testCase, Collections.<String, String>emptyMap()))));
+            logger.debug("Preparing request of {} ahead of time", testCase.getTCID());
+        }
+    }
+
+    /**
+     * Returns the request prefetched for the test case on this thread, waiting for it if it is
+     * still being prepared, or null when none was prefetched.
+     */
+    public static PreparedRequest take(APITestCase testCase) {
+        Future<PreparedRequest> future = prefetched.get().remove(testCase);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestException.RequestPreparationException("Interrupted while preparing request of " + testCase.getTCID(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TestException.RequestPreparationException("Failed to prepare request of " + testCase.getTCID(), cause);
+        }
+    }
+
+    /**
+     * Drops the requests prefetched on this thread that were not sent, e.g. after a failed setup.
+     */
+    public static void clear() {
+        Map<APITestCase, Future<PreparedRequest>> futures = prefetched.get();
+        for (Future<PreparedRequest> future : futures.values()) {
+            future.cancel(false);
+        }
+        futures.clear();
+    }
+
+    static boolean dependsOnSavedFields(APITestCase testCase) {
+        for (List<String> values : Arrays.asList(testCase.getHeaderOverride(), testCase.getBodyOverride(),
+                testCase.getQueryParams(), testCase.getPathParams())) {
+            if (values == null) {
+                continue;
+            }
+            for (String value : values) {
+                if (SAVED_FIELD_PATTERN.matcher(value).find()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (RequestPipeline.class) {
+                if (executor == null) {
+                    AtomicInteger threadNumber = new AtomicInteger();
+                    executor = Executors.newFixedThreadPool(RunOptions.getPreparationThreads(), runnable -> {
+                        Thread thread = new Thread(runnable, "e2e-prepare-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,236 @@
+package api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Token-bucket rate limits and max-in-flight caps per host and per endpoint, declared in
+ * api-endpoint-config.yaml:
+ * <pre>
+ * sit:
+ *   hosts:
+ *     "10.191.111.79:8088":
+ *       requestsPerSecond: 20
+ *       burst: 5
+ *       maxInFlight: 8
+ *   endpoints:
+ *     add_item:
+ *       ...
+ *       rateLimit:
+ *         requestsPerSecond: 5
+ *         maxInFlight: 2
+ * </pre>
+ * Tokens are reserved with a CAS, so no lock is held while a request waits for its slot.
+ * The wait parks the calling thread; test case workers are virtual threads on Java 21 and later
+ * (see {@link WorkerThreads}), so there a throttled request does not hold a platform thread.
+ * Wait times are collected per limit for tuning parallelism.
+ */
+public class RequestThrottle {
+    private static final Logger logger = LoggerFactory.getLogger(RequestThrottle.class);
+    private static final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private static final Limit UNLIMITED = new Limit("unlimited", 0, 1, 0);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RequestThrottle::logStatistics));
+    }
+
+    private final APIConfigManager apiConfigManager;
+
+    public RequestThrottle(APIConfigManager apiConfigManager) {
+        this.apiConfigManager = apiConfigManager;
+    }
+
+    /**
+     * Waits until both the host and the endpoint limit admit one more request. The returned
+     * permit must be closed once the response has been received.
+     */
+    public Permit acquire(String endpointKey, String url) {
+        String environment = apiConfigManager.getCurrentEnvironment();
+        String host = getHostKey(url);
+        Limit hostLimit = getLimit("host " + environment + "/" + host, () -> apiConfigManager.getHostConfig(host));
+        Limit endpointLimit = getLimit("endpoint " + environment + "/" + endpointKey,
+                () -> getRateLimitConfig(apiConfigManager.getEndpointConfig(endpointKey)));
+        // Endpoint first, so a request queued behind a narrow endpoint cap does not hold host capacity
+        endpointLimit.acquire();
+        try {
+            hostLimit.acquire();
+        } catch (RuntimeException e) {
+            endpointLimit.release();
+            throw e;
+        }
+        return new Permit(hostLimit, endpointLimit);
+    }
+
+    public static Map<String, Limit> getLimits() {
+        Map<String, Limit> configured = new TreeMap<>();
+        for (Map.Entry<String, Limit> entry : limits.entrySet()) {
+            if (entry.getValue() != UNLIMITED) {
+                configured.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return configured;
+    }
+
+    /**
+     * Forgets all limits so they are created again from the current configuration. Only call
+     * this while no request is in flight.
+     */
+    public static void clear() {
+        limits.clear();
+    }
+
+    public static void logStatistics() {
+        for (Limit limit : getLimits().values()) {
+            logger.info("Rate limit {}: {} requests, {} waited, total wait {} ms, max wait {} ms",
+                    limit.getName(), limit.getRequests(), limit.getWaitedRequests(),
+                    TimeUnit.NANOSECONDS.toMillis(limit.getTotalWaitNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(limit.getMaxWaitNanos()));
+        }
+    }
+
+    private Limit getLimit(String name, Supplier<Map<String, Object>> config) {
+        return limits.computeIfAbsent(name, key -> createLimit(key, config.get()));
+    }
+
+    private static Limit createLimit(String name, Map<String, Object> config) {
+        double requestsPerSecond = APIConfigManager.getNumber(config, "requestsPerSecond", 0).doubleValue();
+        int burst = APIConfigManager.getNumber(config, "burst", 1).intValue();
+        int maxInFlight = APIConfigManager.getNumber(config, "maxInFlight", 0).intValue();
+        if (requestsPerSecond <= 0 && maxInFlight <= 0) {
+            return UNLIMITED;
+        }
+        logger.info("Applying {}: {} requests/s (burst {}), max in flight {}", name, requestsPerSecond, burst, maxInFlight);
+        return new Limit(name, requestsPerSecond, burst, maxInFlight);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getRateLimitConfig(Map<String, Object> endpointConfig) {
+        Object rateLimit = endpointConfig.get("rateLimit");
+        return rateLimit instanceof Map ? (Map<String, Object>) rateLimit : Collections.emptyMap();
+    }
+
+    static String getHostKey(String url) {
+        try {
+            URL parsed = new URL(url);
+            int port = parsed.getPort() == -1 ? parsed.getDefaultPort() : parsed.getPort();
+            return parsed.getHost() + ":" + port;
+        } catch (MalformedURLException e) {
+            throw new TestException.RequestPreparationException("Invalid endpoint URL: " + url, e);
+        }
+    }
+
+    public static class Permit implements AutoCloseable {
+        private final Limit hostLimit;
+        private final Limit endpointLimit;
+        private boolean closed;
+
+        private Permit(Limit hostLimit, Limit endpointLimit) {
+            this.hostLimit = hostLimit;
+            this.endpointLimit = endpointLimit;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                endpointLimit.release();
+                hostLimit.release();
+            }
+        }
+    }
+
+    public static class Limit {
+        private final String name;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Semaphore inFlightPermits;
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder waitedRequests = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        Limit(String name, double requestsPerSecond, int burst, int maxInFlight) {
+            this.name = name;
+            this.intervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+            this.burstNanos = intervalNanos * Math.max(1, burst);
+            this.inFlightPermits = maxInFlight > 0 ? new Semaphore(maxInFlight, true) : null;
+        }
+
+        void acquire() {
+            if (intervalNanos == 0 && inFlightPermits == null) {
+                return;
+            }
+            long start = System.nanoTime();
+            if (inFlightPermits != null) {
+                try {
+                    inFlightPermits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TestException.RequestExecutionException("Interrupted while waiting for " + name, e);
+                }
+            }
+            long delay = reserveToken();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            inFlight.incrementAndGet();
+            recordWait(System.nanoTime() - start);
+        }
+
+        void release() {
+            if (intervalNanos == 0 && inFlightPermits == null) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            if (inFlightPermits != null) {
+                inFlightPermits.release();
+            }
+        }
+
+        // Generic cell rate algorithm: returns how long the caller has to wait for its token
+        private long reserveToken() {
+            if (intervalNanos == 0) {
+                return 0;
+            }
+            while (true) {
+                long now = System.nanoTime();
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + intervalNanos;
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return Math.max(0, next - now - burstNanos);
+                }
+            }
+        }
+
+        private void recordWait(long waitNanos) {
+            requests.increment();
+            // Below 1 ms is scheduling noise rather than throttling
+            if (waitNanos > TimeUnit.MILLISECONDS.toNanos(1)) {
+                waitedRequests.increment();
+                totalWaitNanos.add(waitNanos);
+                maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+        }
+
+        public String getName() { return name; }
+        public int getInFlight() { return inFlight.get(); }
+        public long getRequests() { return requests.sum(); }
+        public long getWaitedRequests() { return waitedRequests.sum(); }
+        public long getTotalWaitNanos() { return totalWaitNanos.sum(); }
+        public long getMaxWaitNanos() { return maxWaitNanos.get(); }
+    }
+}
@@ -0,0 +1,100 @@
+package api;
+
+import api.model.APIResponse;
+import api.model.APITestCase;
+import api.model.LatencyBudget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks response times against the {@link LatencyBudget} of a test case, taken from its Max
+ * Response Time column or, for all cases of an endpoint, from api-endpoint-config.yaml:
+ * <pre>
+ * sit:
+ *   endpoints:
+ *     summary:
+ *       ...
+ *       maxResponseTime: "p95&lt;=300ms, runs=20"
+ * </pre>
+ * The verified response is the first sample. With {@code runs} above 1 the request is sent
+ * again after all other checks, so use it only for requests that can be repeated. Responses
+ * shared by {@link RequestCoalescer} are not samples; a shared verified response, which only
+ * read-only requests get, is replaced by one more run.
+ */
+public class ResponseTimeValidator {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseTimeValidator.class);
+    private static final Map<String, LatencyBudget> budgets = new ConcurrentHashMap<>();
+
+    private final APIConfigManager apiConfigManager;
+    private final APIRequestExecutor apiRequestExecutor;
+
+    public ResponseTimeValidator() {
+        this.apiConfigManager = APIConfigManager.getInstance();
+        this.apiRequestExecutor = new APIRequestExecutor(apiConfigManager);
+    }
+
+    public void verifyResponseTime(APITestCase testCase, APIResponse response) {
+        List<String> violations = findViolations(testCase, response);
+        if (!violations.isEmpty()) {
+            throw new AssertionError(String.format("Response time of %s over budget: %s",
+                    testCase.getTCID(), String.join("; ", violations)));
+        }
+    }
+
+    /**
+     * Returns the exceeded limits, or an empty list when the case has no budget.
+     */
+    public List<String> findViolations(APITestCase testCase, APIResponse response) {
+        LatencyBudget budget = getLatencyBudget(testCase);
+        if (budget == null) {
+            return Collections.emptyList();
+        }
+        List<Long> samples = new ArrayList<>();
+        int runs = budget.getRuns();
+        if (response.isShared()) {
+            // The shared call was timed for another request, so it is measured again instead
+            runs++;
+        } else {
+            samples.add(response.getResponseTime());
+        }
+        for (int run = 1; run < runs; run++) {
+            APIResponse repeated = apiRequestExecutor.prepareAndSendRequest(testCase);
+            if (!repeated.isShared()) {
+                samples.add(repeated.getResponseTime());
+            }
+        }
+        if (samples.isEmpty()) {
+            logger.warn("No response time of {} was measured on its own call; skipping its latency budget", testCase.getTCID());
+            return Collections.emptyList();
+        }
+        logger.info("Response times of {}: {}", testCase.getTCID(), LatencyBudget.describe(samples));
+        return budget.findViolations(samples);
+    }
+
+    public LatencyBudget getLatencyBudget(APITestCase testCase) {
+        String text = testCase.getMaxResponseTime();
+        if (text == null || text.trim().isEmpty()) {
+            Object configured = apiConfigManager.getEndpointConfig(testCase.getEndpointKey()).get("maxResponseTime");
+            text = configured == null ? null : configured.toString();
+        }
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        LatencyBudget budget = budgets.computeIfAbsent(text.trim(), ResponseTimeValidator::parse);
+        return budget.isEmpty() ? null : budget;
+    }
+
+    private static LatencyBudget parse(String text) {
+        try {
+            return LatencyBudget.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw new TestException.ConfigurationException(e.getMessage(), e);
+        }
+    }
+}
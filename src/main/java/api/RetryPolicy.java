@@ -0,0 +1,98 @@
+package api;
+
+import io.restassured.http.Method;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry settings for one endpoint, read from {@code retry:} at environment level and overridden
+ * by {@code retry:} on the endpoint:
+ * <pre>
+ * retry:
+ *   maxAttempts: 3
+ *   initialBackoffMs: 200
+ *   maxBackoffMs: 5000
+ *   multiplier: 2
+ *   retryOnStatus: [502, 503, 504]
+ *   idempotent: true   # allow retrying a read-only POST
+ * </pre>
+ * Only idempotent methods (GET, HEAD, OPTIONS, PUT, DELETE) are retried unless the endpoint is
+ * marked idempotent. Backoff is exponential with full jitter.
+ */
+public class RetryPolicy {
+    private static final Set<Method> IDEMPOTENT_METHODS = EnumSet.of(Method.GET, Method.HEAD, Method.OPTIONS, Method.PUT, Method.DELETE);
+    private static final List<Integer> DEFAULT_RETRY_STATUSES = Arrays.asList(502, 503, 504);
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final double multiplier;
+    private final Set<Integer> retryOnStatus;
+    private final boolean idempotent;
+
+    RetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs, double multiplier,
+                Collection<Integer> retryOnStatus, boolean idempotent) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.multiplier = multiplier;
+        this.retryOnStatus = new HashSet<>(retryOnStatus);
+        this.idempotent = idempotent;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static RetryPolicy forEndpoint(APIConfigManager apiConfigManager, String endpointKey, Method method) {
+        Map<String, Object> config = new HashMap<>(apiConfigManager.getEnvironmentSection("retry"));
+        Object endpointRetry = apiConfigManager.getEndpointConfig(endpointKey).get("retry");
+        if (endpointRetry instanceof Map) {
+            config.putAll((Map<String, Object>) endpointRetry);
+        }
+        Object statuses = config.get("retryOnStatus");
+        List<Integer> retryOnStatus = new ArrayList<>();
+        if (statuses instanceof List) {
+            for (Object status : (List<?>) statuses) {
+                retryOnStatus.add(Integer.parseInt(String.valueOf(status).trim()));
+            }
+        } else {
+            retryOnStatus.addAll(DEFAULT_RETRY_STATUSES);
+        }
+        Object idempotent = config.get("idempotent");
+        return new RetryPolicy(
+                APIConfigManager.getNumber(config, "maxAttempts", 1).intValue(),
+                APIConfigManager.getNumber(config, "initialBackoffMs", 200).longValue(),
+                APIConfigManager.getNumber(config, "maxBackoffMs", 5000).longValue(),
+                APIConfigManager.getNumber(config, "multiplier", 2).doubleValue(),
+                retryOnStatus,
+                idempotent == null ? IDEMPOTENT_METHODS.contains(method) : Boolean.parseBoolean(String.valueOf(idempotent)));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isRetryableStatus(int statusCode) {
+        return retryOnStatus.contains(statusCode);
+    }
+
+    public boolean shouldRetry(int attempt, int statusCode) {
+        return canRetry(attempt) && isRetryableStatus(statusCode);
+    }
+
+    public boolean shouldRetry(int attempt, Exception failure) {
+        return canRetry(attempt) && failure instanceof IOException;
+    }
+
+    /**
+     * Returns a random delay between 0 and the exponential backoff ceiling for {@code attempt}.
+     */
+    public long getBackoffMillis(int attempt) {
+        double ceiling = Math.min(maxBackoffMs, initialBackoffMs * Math.pow(multiplier, attempt - 1));
+        return (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+    }
+
+    private boolean canRetry(int attempt) {
+        return idempotent && attempt < maxAttempts;
+    }
+}
@@ -0,0 +1,308 @@
+package api;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Run-level switches passed as system properties (e.g. {@code -DshardIndex=0 -DshardCount=4}).
+ * Endpoint and environment settings stay in {@link APIConfigManager}.
+ */
+public class RunOptions {
+
+    private RunOptions() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static int getShardIndex() {
+        return getInt("shardIndex", 0);
+    }
+
+    public static int getShardCount() {
+        return getInt("shardCount", 1);
+    }
+
+    public static boolean isShardingEnabled() {
+        return getShardCount() > 1;
+    }
+
+    public static String getResultDirectory() {
+        return get("resultDir", "target/results");
+    }
+
+    public static String getShardStrategy() {
+        return get("shardStrategy", "hash");
+    }
+
+    public static String getTimingStoreFile() {
+        return get("timingStore", ".e2e-cache/timings.json");
+    }
+
+    /**
+     * Compares response times with the last green runs and stores them when the run is green
+     * ({@code -DperformanceBaseline=true}).
+     */
+    public static boolean isPerformanceBaseline() {
+        return getBoolean("performanceBaseline", false);
+    }
+
+    public static String getBaselineStoreFile() {
+        return get("baselineStore", ".e2e-cache/performance-baseline.json");
+    }
+
+    /**
+     * Number of green runs the performance baseline keeps per TCID and endpoint.
+     */
+    public static int getBaselineRuns() {
+        return getInt("baselineRuns", 5);
+    }
+
+    /**
+     * Median slowdown in percent from which a significant shift counts as a regression.
+     */
+    public static int getRegressionThresholdPercent() {
+        return getInt("regressionThreshold", 20);
+    }
+
+    public static long getDefaultDurationEstimateMs() {
+        return getInt("defaultDurationMs", 1000);
+    }
+
+    public static boolean isIncremental() {
+        return getBoolean("incremental", false);
+    }
+
+    public static String getOutcomeStoreFile() {
+        return get("outcomeStore", ".e2e-cache/outcomes.json");
+    }
+
+    public static String getProject() {
+        return require("project");
+    }
+
+    public static String getEnvironment() {
+        return require("env");
+    }
+
+    /**
+     * Tag expression over the Excel Tags column, e.g. {@code -Dtags="AddItem and not slow"}.
+     */
+    public static String getTags() {
+        return get("tags", "");
+    }
+
+    public static int getThreads() {
+        return getInt("threads", 1);
+    }
+
+    /**
+     * Number of worker JVMs the distributed coordinator starts on this machine
+     * ({@code -Dworkers=4}); 0 waits for workers started separately.
+     */
+    public static int getWorkers() {
+        return getInt("workers", 0);
+    }
+
+    public static int getCoordinatorPort() {
+        return getInt("coordinatorPort", 0);
+    }
+
+    /**
+     * {@code host:port} of the coordinator a distributed worker connects to.
+     */
+    public static String getCoordinatorAddress() {
+        return require("coordinator");
+    }
+
+    public static String getWorkerName() {
+        return get("workerName", "worker-" + ManagementFactory.getRuntimeMXBean().getName());
+    }
+
+    /**
+     * Value before the first {@code ${sequence}}; the distributed coordinator gives every worker
+     * its own range ({@code -DsequenceStart=...}), and static shards default to a range of a
+     * billion values per {@code -DshardIndex}.
+     */
+    public static long getSequenceStart() {
+        String value = get("sequenceStart", String.valueOf(getShardIndex() * 1_000_000_000L));
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new TestException.ConfigurationException("Invalid integer for sequenceStart: " + value, e);
+        }
+    }
+
+    /**
+     * Seed for generated test data, or empty when every run should get fresh values.
+     */
+    public static OptionalLong getSeed() {
+        String value = get("seed", null);
+        if (value == null) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            throw new TestException.ConfigurationException("Invalid integer for seed: " + value, e);
+        }
+    }
+
+    /**
+     * CSV, YAML, JSONL or Excel file to read test cases from instead of the project's workbook
+     * ({@code -DtestCaseSource=...}).
+     */
+    public static String getTestCaseSource() {
+        return get("testCaseSource", null);
+    }
+
+    /**
+     * Size of the pools of pre-generated Faker values ({@code -DdataPoolSize}, 0 disables them).
+     * Pools are not used when {@code -Dseed} is set.
+     */
+    public static int getDataPoolSize() {
+        return getInt("dataPoolSize", 256);
+    }
+
+    /**
+     * Writes an HTML summary next to the result file at the end of the run
+     * ({@code -DhtmlReport=true}).
+     */
+    public static boolean isHtmlReport() {
+        return getBoolean("htmlReport", false);
+    }
+
+    /**
+     * Writes the results into a copy of the test case workbook at the end of the run
+     * ({@code -DexcelWriteBack=true}).
+     */
+    public static boolean isExcelWriteBack() {
+        return getBoolean("excelWriteBack", false);
+    }
+
+    /**
+     * Checks every expected field and reports all mismatches of a case together instead of
+     * failing on the first ({@code -DsoftAssertions=true}).
+     */
+    public static boolean isSoftAssertions() {
+        return getBoolean("softAssertions", false);
+    }
+
+    /**
+     * Drops response bodies as soon as their saved fields have been extracted
+     * ({@code -DmemoryBounded=true}).
+     */
+    public static boolean isMemoryBounded() {
+        return getBoolean("memoryBounded", false);
+    }
+
+    /**
+     * Serves live progress on localhost while the run is going ({@code -Ddashboard=true}).
+     */
+    public static boolean isDashboard() {
+        return getBoolean("dashboard", false);
+    }
+
+    public static int getDashboardPort() {
+        return getInt("dashboardPort", 8099);
+    }
+
+    /**
+     * Prepares requests on background threads while earlier requests are in flight
+     * ({@code -DpipelinedPreparation=true}).
+     */
+    public static boolean isPipelinedPreparation() {
+        return getBoolean("pipelinedPreparation", false);
+    }
+
+    public static int getPreparationThreads() {
+        return Math.max(1, getInt("preparationThreads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Comma-separated environments the environment comparison runs every case against
+     * ({@code -DcompareEnvs=dev,sit}).
+     */
+    public static List<String> getCompareEnvironments() {
+        List<String> environments = new ArrayList<>();
+        for (String environment : require("compareEnvs").split(",")) {
+            if (!environment.trim().isEmpty()) {
+                environments.add(environment.trim());
+            }
+        }
+        return environments;
+    }
+
+    /**
+     * Comma-separated response fields the environment comparison ignores, e.g.
+     * {@code -DdiffIgnore=timestamp,item.id,data.*.createdAt}.
+     */
+    public static String getDiffIgnore() {
+        return get("diffIgnore", "");
+    }
+
+    /**
+     * Lets concurrent identical read-only requests share one call ({@code -DcoalesceRequests=true}).
+     */
+    public static boolean isCoalesceRequests() {
+        return getBoolean("coalesceRequests", false);
+    }
+
+    /**
+     * Port of the {@link RunnerDaemon} on 127.0.0.1 ({@code -DdaemonPort}).
+     */
+    public static int getDaemonPort() {
+        return getInt("daemonPort", 8097);
+    }
+
+    /**
+     * Resource directory watched by the {@link RunnerDaemon} ({@code -DwatchDir}).
+     */
+    public static String getWatchDirectory() {
+        return get("watchDir", "src/test/resources");
+    }
+
+    /**
+     * Rerun affected cases as soon as the {@link RunnerDaemon} sees a change ({@code -DautoRerun=true}).
+     */
+    public static boolean isAutoRerun() {
+        return getBoolean("autoRerun", false);
+    }
+
+    /**
+     * Run test case workers on virtual threads where the JVM has them ({@code -DvirtualThreads}, default true).
+     */
+    public static boolean isVirtualThreads() {
+        return getBoolean("virtualThreads", true);
+    }
+
+    static String require(String key) {
+        String value = get(key, null);
+        if (value == null) {
+            throw new TestException.ConfigurationException("Missing required system property: -D" + key);
+        }
+        return value;
+    }
+
+    static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new TestException.ConfigurationException("Invalid integer for " + key + ": " + value, e);
+        }
+    }
+
+    static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
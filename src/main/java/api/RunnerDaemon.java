@@ -0,0 +1,451 @@
+package api;
+
+import api.model.APITestCase;
+import api.model.ResultSummary;
+import api.model.TestCaseGroup;
+import api.model.TestResult;
+import api.util.ExcelTestCaseReader;
+import api.util.TagExpression;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Long-lived runner that keeps the catalog, templates, endpoint configuration and a warmed-up
+ * JVM between runs, so rerunning a case after an edit takes as long as the case itself.
+ * <p>
+ * Start it with {@code java -cp <classpath> -Dproject=DSB1 -Denv=sit [-DdaemonPort=8097]
+ * [-DwatchDir=src/test/resources] [-DautoRerun=true] api.RunnerDaemon}, with the watched
+ * resource directory ahead of {@code target/test-classes} on the classpath so edits are seen.
+ * The {@code cases}, {@code templates}, {@code config} and {@code schemas} directories of the
+ * project (and the {@code -DtestCaseSource} file) are watched; on a change only the affected
+ * caches are dropped, and the cases whose {@link IncrementalRunManager} fingerprint changed are
+ * queued. With {@code -DautoRerun=true} they run right away.
+ * <p>
+ * Commands are single lines on 127.0.0.1, answered with JSON lines ending in a {@code done} or
+ * {@code error} message. The same class acts as client when given arguments, e.g.
+ * {@code java -cp <classpath> api.RunnerDaemon run AddItem01}:
+ * <ul>
+ *     <li>{@code run [changed]} - the queued cases</li>
+ *     <li>{@code run all} - the selection of {@link HeadlessTestRunner}</li>
+ *     <li>{@code run tags <expression>} - the runnable cases matching a {@link TagExpression}</li>
+ *     <li>{@code run <TCID>...} - the given cases</li>
+ *     <li>{@code status}, {@code reload} and {@code stop}</li>
+ * </ul>
+ */
+public class RunnerDaemon {
+    private static final Logger logger = LoggerFactory.getLogger(RunnerDaemon.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final List<String> WATCHED_DIRECTORIES = Arrays.asList("cases", "templates", "config", "schemas");
+    private static final long SETTLE_MILLIS = 200;
+
+    private final APIConfigManager apiConfigManager = APIConfigManager.getInstance();
+    private final APITestCaseManager apiTestCaseManager = new APITestCaseManager();
+    // One runner per worker so each binds to its own thread's TestContext
+    private final ThreadLocal<APITestCaseRunner> runners = ThreadLocal.withInitial(APITestCaseRunner::new);
+    private final Set<String> pendingTCIDs = new TreeSet<>();
+    private Map<String, String> fingerprints = new HashMap<>();
+    private ExecutorService workers;
+    private volatile boolean stopped;
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(sendCommand(String.join(" ", args)));
+        }
+        new RunnerDaemon().serve();
+        System.exit(0);
+    }
+
+    public void serve() {
+        apiConfigManager.setProject(RunOptions.getProject());
+        apiConfigManager.setEnvironment(RunOptions.getEnvironment());
+        LiveDashboard.startIfEnabled();
+        checkClasspath();
+        long start = System.currentTimeMillis();
+        fingerprints = computeFingerprints();
+        apiTestCaseManager.getTagIndex();
+        logger.info("Warmed up {} runnable test cases in {} ms", fingerprints.size(), System.currentTimeMillis() - start);
+
+        workers = Executors.newFixedThreadPool(Math.max(1, RunOptions.getThreads()), WorkerThreads.named("e2e-daemon-"));
+        startWatcher();
+        try (ServerSocket server = new ServerSocket(RunOptions.getDaemonPort(), 50, InetAddress.getLoopbackAddress())) {
+            logger.info("Runner daemon listening on 127.0.0.1:{}", server.getLocalPort());
+            while (!stopped) {
+                // Clients are served one at a time, so runs never overlap
+                try (Socket socket = server.accept();
+                     BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                     BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                    String command = in.readLine();
+                    if (command != null) {
+                        handle(command.trim(), message -> reply(out, message));
+                    }
+                } catch (IOException e) {
+                    logger.warn("Runner daemon client connection failed", e);
+                }
+            }
+        } catch (IOException e) {
+            throw new TestException.ConfigurationException("Failed to listen on port " + RunOptions.getDaemonPort(), e);
+        } finally {
+            workers.shutdownNow();
+            TestResultRecorder.close();
+        }
+        logger.info("Runner daemon stopped");
+    }
+
+    private void handle(String command, Consumer<Map<String, Object>> listener) {
+        String[] words = command.split("\\s+", 2);
+        String argument = words.length > 1 ? words[1].trim() : "";
+        try {
+            switch (words[0].toLowerCase(Locale.ROOT)) {
+                case "run":
+                    run(select(argument), listener);
+                    break;
+                case "reload":
+                    synchronized (this) {
+                        reload(true, true, true, true);
+                    }
+                    listener.accept(status());
+                    break;
+                case "status":
+                    listener.accept(status());
+                    break;
+                case "stop":
+                    stopped = true;
+                    listener.accept(message("done"));
+                    break;
+                default:
+                    listener.accept(error("Unknown command: " + command));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Command '{}' failed", command, e);
+            listener.accept(error(e.getMessage()));
+        }
+    }
+
+    private List<APITestCase> select(String argument) {
+        if (argument.isEmpty() || argument.equalsIgnoreCase("changed")) {
+            List<APITestCase> testCases = new ArrayList<>();
+            synchronized (this) {
+                for (String tcid : pendingTCIDs) {
+                    testCases.add(apiTestCaseManager.getTestCaseByTCID(tcid));
+                }
+            }
+            return testCases;
+        }
+        if (argument.equalsIgnoreCase("all")) {
+            return new HeadlessTestRunner().selectTestCases();
+        }
+        if (argument.toLowerCase(Locale.ROOT).startsWith("tags ")) {
+            return apiTestCaseManager.getTagIndex().select(TagExpression.parse(argument.substring(5)));
+        }
+        List<APITestCase> testCases = new ArrayList<>();
+        for (String tcid : argument.split("[\\s,]+")) {
+            testCases.add(apiTestCaseManager.getTestCaseByTCID(tcid));
+        }
+        return testCases;
+    }
+
+    private synchronized void run(List<APITestCase> testCases, Consumer<Map<String, Object>> listener) {
+        long start = System.currentTimeMillis();
+        ResultSummary summary = new ResultSummary();
+        List<Future<?>> futures = new ArrayList<>();
+        List<TestCaseGroup> groups = new TestShardManager().buildDependencyGroups(testCases);
+        for (TestCaseGroup group : new TestScheduler().orderLongestFirst(groups)) {
+            futures.add(workers.submit(() -> {
+                for (APITestCase testCase : group.getTestCases()) {
+                    TestResult result = runners.get().run(testCase);
+                    summary.add(result);
+                    Map<String, Object> message = message("result");
+                    message.put("result", result);
+                    listener.accept(message);
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestException("Daemon run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new TestException("Daemon run aborted", e.getCause());
+        } finally {
+            TestResultRecorder.close();
+            IncrementalRunManager.getInstance().save();
+        }
+        for (APITestCase testCase : testCases) {
+            pendingTCIDs.remove(testCase.getTCID());
+        }
+        long durationMs = System.currentTimeMillis() - start;
+        logger.info("Daemon run finished: {} cases, {} failed in {} ms", summary.getTotal(), summary.getFailed(), durationMs);
+        Map<String, Object> done = message("done");
+        done.put("total", summary.getTotal());
+        done.put("passed", summary.getPassed());
+        done.put("failed", summary.getFailed());
+        done.put("skipped", summary.getSkipped());
+        done.put("durationMs", durationMs);
+        listener.accept(done);
+    }
+
+    private void startWatcher() {
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            for (Path directory : getWatchedDirectories()) {
+                try (Stream<Path> tree = Files.walk(directory)) {
+                    for (Path subdirectory : (Iterable<Path>) tree.filter(Files::isDirectory)::iterator) {
+                        subdirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    }
+                }
+                logger.info("Watching {}", directory.toAbsolutePath());
+            }
+            Path sourceFile = getTestCaseSourceFile();
+            if (sourceFile != null && Files.isDirectory(sourceFile.getParent())) {
+                sourceFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                logger.info("Watching {}", sourceFile);
+            }
+            Thread watcher = new Thread(() -> watch(watchService), "e2e-daemon-watch");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException e) {
+            logger.warn("Failed to watch {}, use the reload command after changes", RunOptions.getWatchDirectory(), e);
+        }
+    }
+
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+                // Editors and Excel save in several steps; wait until the burst is over
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                if (!changed.isEmpty()) {
+                    onChange(changed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.add(directory);
+                continue;
+            }
+            String name = event.context().toString();
+            // Lock and swap files of Excel and editors
+            if (!name.startsWith("~$") && !name.startsWith(".") && !name.endsWith("~")) {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+    }
+
+    private void onChange(Set<Path> changed) {
+        Path root = Paths.get(RunOptions.getWatchDirectory()).toAbsolutePath().normalize();
+        Path sourceFile = getTestCaseSourceFile();
+        boolean cases = false;
+        boolean templates = false;
+        boolean config = false;
+        boolean schemas = false;
+        for (Path path : changed) {
+            Path absolute = path.toAbsolutePath().normalize();
+            cases |= absolute.startsWith(root.resolve("cases")) || absolute.equals(sourceFile);
+            templates |= absolute.startsWith(root.resolve("templates"));
+            config |= absolute.startsWith(root.resolve("config"));
+            schemas |= absolute.startsWith(root.resolve("schemas"));
+        }
+        if (!cases && !templates && !config && !schemas) {
+            // Other files next to the -DtestCaseSource file
+            return;
+        }
+        logger.info("Detected changes in {}", changed);
+        List<APITestCase> rerun = null;
+        synchronized (this) {
+            try {
+                reload(cases, templates, config, schemas);
+            } catch (RuntimeException e) {
+                // Usually a file caught half-written; the next save triggers another reload
+                logger.warn("Reload failed, keeping the queued cases until the next change", e);
+                return;
+            }
+            if (RunOptions.isAutoRerun() && !pendingTCIDs.isEmpty()) {
+                rerun = select("changed");
+            }
+        }
+        if (rerun != null) {
+            handleRerun(rerun);
+        }
+    }
+
+    private void handleRerun(List<APITestCase> testCases) {
+        try {
+            run(testCases, message -> {
+                if ("done".equals(message.get("type"))) {
+                    logger.info("Rerun of changed cases: {} passed, {} failed", message.get("passed"), message.get("failed"));
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Rerun of changed cases failed", e);
+        }
+    }
+
+    private void reload(boolean cases, boolean templates, boolean config, boolean schemas) {
+        if (cases) {
+            APITestCaseManager.clearCache();
+            ExcelTestCaseReader.clearCache();
+            TestShardManager.clearCache();
+        }
+        if (templates) {
+            APIRequestTemplateProcessor.clearCache();
+        }
+        if (config) {
+            apiConfigManager.reload();
+            RequestThrottle.clear();
+            CircuitBreaker.clear();
+        }
+        if (schemas) {
+            JsonSchemaValidator.clearCache();
+        }
+        IncrementalRunManager.getInstance().clearCache();
+
+        Map<String, String> updated = computeFingerprints();
+        Set<String> affected = new TreeSet<>();
+        for (Map.Entry<String, String> entry : updated.entrySet()) {
+            if (!entry.getValue().equals(fingerprints.get(entry.getKey()))) {
+                affected.add(entry.getKey());
+            }
+        }
+        fingerprints = updated;
+        pendingTCIDs.retainAll(updated.keySet());
+        pendingTCIDs.addAll(affected);
+        logger.info("Reloaded, {} test cases affected {}, {} queued", affected.size(), affected, pendingTCIDs.size());
+    }
+
+    private Map<String, String> computeFingerprints() {
+        IncrementalRunManager incrementalRunManager = IncrementalRunManager.getInstance();
+        Map<String, String> computed = new HashMap<>();
+        for (APITestCase testCase : apiTestCaseManager.getRunnableTestCases()) {
+            computed.put(testCase.getTCID(), incrementalRunManager.getFingerprint(testCase.getTCID()));
+        }
+        return computed;
+    }
+
+    private List<Path> getWatchedDirectories() {
+        List<Path> directories = new ArrayList<>();
+        for (String name : WATCHED_DIRECTORIES) {
+            Path directory = Paths.get(RunOptions.getWatchDirectory(), name, RunOptions.getProject());
+            if (Files.isDirectory(directory)) {
+                directories.add(directory);
+            }
+        }
+        return directories;
+    }
+
+    private static Path getTestCaseSourceFile() {
+        String source = RunOptions.getTestCaseSource();
+        return source == null || source.isEmpty() ? null : Paths.get(source).toAbsolutePath().normalize();
+    }
+
+    // Resources are read from the classpath, so edits are only seen when the watched directory is on it
+    private void checkClasspath() {
+        URL config = RunnerDaemon.class.getResource("/config/" + RunOptions.getProject() + "/api-endpoint-config.yaml");
+        Path watched = Paths.get(RunOptions.getWatchDirectory()).toAbsolutePath().normalize();
+        try {
+            if (config == null || !"file".equals(config.getProtocol())
+                    || !Paths.get(config.toURI()).toAbsolutePath().normalize().startsWith(watched)) {
+                logger.warn("Configuration is loaded from {}, not from {}; put {} first on the classpath to pick up edits",
+                        config, watched, watched);
+            }
+        } catch (java.net.URISyntaxException e) {
+            logger.warn("Cannot check where configuration is loaded from: {}", config);
+        }
+    }
+
+    private synchronized Map<String, Object> status() {
+        Map<String, Object> status = message("done");
+        status.put("project", apiConfigManager.getCurrentProject());
+        status.put("environment", apiConfigManager.getCurrentEnvironment());
+        status.put("runnable", fingerprints.size());
+        status.put("pending", new ArrayList<>(pendingTCIDs));
+        return status;
+    }
+
+    private static void reply(BufferedWriter out, Map<String, Object> message) {
+        synchronized (out) {
+            try {
+                out.write(objectMapper.writeValueAsString(message));
+                out.newLine();
+                out.flush();
+            } catch (IOException e) {
+                logger.debug("Client went away, dropping {} message", message.get("type"));
+            }
+        }
+    }
+
+    private static Map<String, Object> message(String type) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", type);
+        return message;
+    }
+
+    private static Map<String, Object> error(String reason) {
+        Map<String, Object> message = message("error");
+        message.put("message", reason);
+        return message;
+    }
+
+    /**
+     * Sends one command to a running daemon and prints the answer. Returns the exit code: 1
+     * when a case failed or the command was rejected.
+     */
+    static int sendCommand(String command) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), RunOptions.getDaemonPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.write(command);
+            out.newLine();
+            out.flush();
+            int exitCode = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                Map<?, ?> message = objectMapper.readValue(line, Map.class);
+                if ("result".equals(message.get("type"))) {
+                    Map<?, ?> result = (Map<?, ?>) message.get("result");
+                    System.out.printf("%-7s %s %s ms%s%n", result.get("status"), result.get("tcid"), result.get("durationMs"),
+                            result.get("message") == null ? "" : "  " + result.get("message"));
+                } else {
+                    System.out.println(line);
+                }
+                if ("error".equals(message.get("type"))
+                        || message.get("failed") instanceof Number && ((Number) message.get("failed")).intValue() > 0) {
+                    exitCode = 1;
+                }
+            }
+            return exitCode;
+        } catch (IOException e) {
+            System.err.println("No runner daemon on 127.0.0.1:" + RunOptions.getDaemonPort() + ": " + e.getMessage());
+            return 2;
+        }
+    }
+}
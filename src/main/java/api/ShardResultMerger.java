@@ -0,0 +1,185 @@
+package api;
+
+import api.model.TestResult;
+import api.util.ExcelTestCaseReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Combines the partial result files written by sharded runs into one report.
+ * <p>
+ * Usage: {@code java -cp <classpath> api.ShardResultMerger [resultDir]}. Writes
+ * {@code merged-results.jsonl} and {@code merged-report.json} into the result directory and exits
+ * with 1 when a case failed or 2 when a shard file is missing. With {@code -Dproject=DSB1
+ * -DexcelWriteBack=true} it also writes the merged results into a copy of the test case workbook,
+ * and with {@code -Dproject=DSB1 -Denv=... -DperformanceBaseline=true} it compares them with the
+ * performance baseline into {@code performance.json}; the shards leave both to it.
+ */
+public class ShardResultMerger {
+    private static final Logger logger = LoggerFactory.getLogger(ShardResultMerger.class);
+    private static final String MERGED_RESULTS_FILE = "merged-results.jsonl";
+    private static final Pattern SHARD_FILE_PATTERN = Pattern.compile("results-shard-(\\d+)-of-(\\d+)\\.jsonl");
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) {
+        Path resultDir = Paths.get(args.length > 0 ? args[0] : RunOptions.getResultDirectory());
+        Map<String, Object> report = new ShardResultMerger().merge(resultDir);
+        if (!((List<?>) report.get("missingShards")).isEmpty()) {
+            System.exit(2);
+        }
+        if (((Number) report.get("failed")).intValue() > 0) {
+            System.exit(1);
+        }
+    }
+
+    public Map<String, Object> merge(Path resultDir) {
+        Map<Integer, Path> shardFiles = new TreeMap<>();
+        int shardCount = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(resultDir, "results-shard-*.jsonl")) {
+            for (Path file : files) {
+                Matcher matcher = SHARD_FILE_PATTERN.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                int count = Integer.parseInt(matcher.group(2));
+                if (shardCount != 0 && count != shardCount) {
+                    throw new TestException.ConfigurationException(
+                            "Result files from different shard counts found in " + resultDir + ": " + shardCount + " and " + count);
+                }
+                shardCount = count;
+                shardFiles.put(Integer.parseInt(matcher.group(1)), file);
+            }
+        } catch (IOException e) {
+            throw new TestException("Failed to list shard results in " + resultDir, e);
+        }
+
+        Map<String, TestResult> results = new TreeMap<>();
+        Set<String> duplicateTCIDs = new TreeSet<>();
+        for (Path file : shardFiles.values()) {
+            readResults(file, results, duplicateTCIDs);
+        }
+
+        List<Integer> missingShards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            if (!shardFiles.containsKey(i)) {
+                missingShards.add(i);
+            }
+        }
+
+        Map<String, Object> report = buildReport(results.values(), shardCount, missingShards, duplicateTCIDs);
+        writeReport(resultDir, results.values(), report);
+        if (RunOptions.isExcelWriteBack()) {
+            Path workbook = Paths.get(ExcelTestCaseReader.getWorkbookPath(RunOptions.getProject()));
+            new ExcelResultWriter().write(workbook, resultDir.resolve(MERGED_RESULTS_FILE),
+                    ExcelResultWriter.getDefaultOutputFile(resultDir));
+        }
+        if (RunOptions.isPerformanceBaseline()) {
+            comparePerformance(resultDir, results.values());
+        }
+        logger.info("Merged {} results from {}/{} shards: {} passed, {} failed, {} skipped",
+                results.size(), shardFiles.size(), shardCount, report.get("passed"), report.get("failed"), report.get("skipped"));
+        if (!missingShards.isEmpty()) {
+            logger.error("Missing result files for shards: {}", missingShards);
+        }
+        if (!duplicateTCIDs.isEmpty()) {
+            // Shards disagreed on the assignment, e.g. duration shards read different timing stores
+            logger.warn("TCIDs run by more than one shard: {}", duplicateTCIDs);
+        }
+        return report;
+    }
+
+    private void comparePerformance(Path resultDir, Collection<TestResult> results) {
+        APIConfigManager apiConfigManager = APIConfigManager.getInstance();
+        apiConfigManager.setProject(RunOptions.getProject());
+        apiConfigManager.setEnvironment(RunOptions.getEnvironment());
+        // The shards ran side by side, so the run took from the first start to the last finish
+        long startedAt = Long.MAX_VALUE;
+        long finishedAt = 0;
+        for (TestResult result : results) {
+            startedAt = Math.min(startedAt, result.getFinishedAtMs() - result.getDurationMs());
+            finishedAt = Math.max(finishedAt, result.getFinishedAtMs());
+        }
+        try {
+            new PerformanceBaseline().compare(resultDir.resolve(MERGED_RESULTS_FILE), resultDir.resolve("performance.json"),
+                    finishedAt - Math.min(startedAt, finishedAt));
+        } catch (TestException e) {
+            logger.warn("Failed to compare with the performance baseline", e);
+        }
+    }
+
+    private void readResults(Path file, Map<String, TestResult> results, Set<String> duplicateTCIDs) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                TestResult result = objectMapper.readValue(line, TestResult.class);
+                TestResult previous = results.put(result.getTCID(), result);
+                if (previous != null) {
+                    duplicateTCIDs.add(result.getTCID());
+                    logger.warn("TCID {} reported by shard {} and shard {}, keeping the latter",
+                            result.getTCID(), previous.getShardIndex(), result.getShardIndex());
+                }
+            }
+        } catch (IOException e) {
+            throw new TestException("Failed to read shard results from " + file, e);
+        }
+    }
+
+    private Map<String, Object> buildReport(Collection<TestResult> results, int shardCount, List<Integer> missingShards,
+                                            Set<String> duplicateTCIDs) {
+        int passed = 0;
+        int failed = 0;
+        int skipped = 0;
+        long totalDuration = 0;
+        for (TestResult result : results) {
+            totalDuration += result.getDurationMs();
+            if (result.getStatus() == TestResult.Status.PASSED) {
+                passed++;
+            } else if (result.getStatus() == TestResult.Status.FAILED) {
+                failed++;
+            } else {
+                skipped++;
+            }
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("shardCount", shardCount);
+        report.put("missingShards", missingShards);
+        report.put("duplicateTCIDs", new ArrayList<>(duplicateTCIDs));
+        report.put("total", results.size());
+        report.put("passed", passed);
+        report.put("failed", failed);
+        report.put("skipped", skipped);
+        report.put("totalDurationMs", totalDuration);
+        report.put("results", new ArrayList<>(results));
+        return report;
+    }
+
+    private void writeReport(Path resultDir, Collection<TestResult> results, Map<String, Object> report) {
+        ObjectMapper lineMapper = new ObjectMapper();
+        try (BufferedWriter writer = Files.newBufferedWriter(resultDir.resolve(MERGED_RESULTS_FILE), StandardCharsets.UTF_8)) {
+            for (TestResult result : results) {
+                writer.write(lineMapper.writeValueAsString(result));
+                writer.newLine();
+            }
+            objectMapper.writeValue(resultDir.resolve("merged-report.json").toFile(), report);
+        } catch (IOException e) {
+            throw new TestException("Failed to write merged report to " + resultDir, e);
+        }
+    }
+}
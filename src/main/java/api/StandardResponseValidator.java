@@ -1,39 +1,51 @@
 package api;
 
 import api.model.APIResponse;
+import api.model.ValidationPlan.FieldCheck;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.Map;
+import java.util.List;
 
 public class StandardResponseValidator {
     private static final Logger logger = LoggerFactory.getLogger(StandardResponseValidator.class);
 
     public void verifyResponseStatusCode(APIResponse response, int expectedStatusCode) {
-        int actualStatusCode = response.getStatusCode();
-        if (actualStatusCode != expectedStatusCode) {
-            throw new AssertionError(String.format("Expected status code %d but got %d", expectedStatusCode, actualStatusCode));
+        String mismatch = checkStatusCode(response, expectedStatusCode);
+        if (mismatch != null) {
+            throw new AssertionError(mismatch);
         }
-        logger.info("Verified response status code: {}", actualStatusCode);
     }
 
-    public void verifyResponseContent(APIResponse response, Map<String, String> expectedData, String currentTCID) {
-        expectedData.forEach((key, expectedValue) -> {
-            if (!isDynamicField(key, currentTCID)) {
-                verifyField(response, key, expectedValue);
+    public void verifyResponseContent(APIResponse response, List<FieldCheck> fieldChecks) {
+        for (FieldCheck fieldCheck : fieldChecks) {
+            String mismatch = checkField(response, fieldCheck);
+            if (mismatch != null) {
+                throw new AssertionError(mismatch);
             }
-        });
+        }
     }
 
-    private void verifyField(APIResponse response, String key, String expectedValue) {
-        String field = key.substring(key.indexOf('.') + 1);
-        String actualValue = response.jsonPath().getString(field);
-        if (actualValue == null || !actualValue.equals(expectedValue)) {
-            throw new AssertionError(String.format("Expected %s to be %s but got %s", key, expectedValue, actualValue));
+    /**
+     * Returns the mismatch message, or null when the status code is as expected.
+     */
+    public String checkStatusCode(APIResponse response, int expectedStatusCode) {
+        int actualStatusCode = response.getStatusCode();
+        if (actualStatusCode != expectedStatusCode) {
+            return String.format("Expected status code %d but got %d", expectedStatusCode, actualStatusCode);
         }
-        logger.info("Verified response field: {} = {}", key, actualValue);
+        logger.info("Verified response status code: {}", actualStatusCode);
+        return null;
     }
 
-    private boolean isDynamicField(String key, String currentTCID) {
-        return key.contains(".") && !key.startsWith(currentTCID);
+    /**
+     * Returns the mismatch message, or null when the field has the expected value.
+     */
+    public String checkField(APIResponse response, FieldCheck fieldCheck) {
+        String actualValue = response.jsonPath().getString(fieldCheck.getPath());
+        if (actualValue == null || !actualValue.equals(fieldCheck.getExpected())) {
+            return String.format("Expected %s to be %s but got %s", fieldCheck.getKey(), fieldCheck.getExpected(), actualValue);
+        }
+        logger.info("Verified response field: {} = {}", fieldCheck.getKey(), actualValue);
+        return null;
     }
 }
\ No newline at end of file
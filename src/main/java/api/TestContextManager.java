@@ -2,7 +2,9 @@ package api;
 
 import api.model.APIResponse;
 import api.model.TestContext;
+import api.model.ValidationPlan.SaveField;
 import java.util.List;
+import java.util.Map;
 
 public class TestContextManager {
     private final TestContext testContext;
@@ -11,25 +13,23 @@ public class TestContextManager {
         this.testContext = TestContext.getInstance();
     }
 
-    public void storeResponseValues(APIResponse response, List<String> keys) {
-        if (keys != null) {
-            keys.forEach(key -> {
-                String field = key.substring(key.indexOf('.') + 1);
-                if (!response.hasJsonPath(field)) {
-                    throw new IllegalArgumentException("Invalid JSON path: " + field);
-                }
-                String value = response.jsonPath().getString(field);
-                testContext.setData(key, value);
-            });
+    public void storeResponseValues(APIResponse response, List<SaveField> saveFields) {
+        for (SaveField saveField : saveFields) {
+            if (!response.hasJsonPath(saveField.getPath())) {
+                throw new IllegalArgumentException("Invalid JSON path: " + saveField.getPath());
+            }
+            String value = response.jsonPath().getString(saveField.getPath());
+            testContext.setData(saveField.getKey(), value);
         }
     }
 
-    public void setPreValidationResponse(String tcid, APIResponse response) {
-        testContext.setData("preValidationResponse_" + tcid, response);
+    public void setPreValidationValues(String tcid, Map<String, Object> values) {
+        testContext.setData("preValidationValues_" + tcid, values);
     }
 
-    public APIResponse getPreValidationResponse(String tcid) {
-        return testContext.getData("preValidationResponse_" + tcid, APIResponse.class)
-                .orElseThrow(() -> new IllegalStateException("Pre-validation response not found for TCID: " + tcid));
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getPreValidationValues(String tcid) {
+        return testContext.getData("preValidationValues_" + tcid, Map.class)
+                .orElseThrow(() -> new IllegalStateException("Pre-validation values not found for TCID: " + tcid));
     }
 }
\ No newline at end of file
@@ -48,4 +48,12 @@ public class TestException extends RuntimeException {
             super("Configuration error: " + message, cause);
         }
     }
-}
\ No newline at end of file
+
+    public static class CircuitOpenException extends TestException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String message) {
+            super("Circuit open: " + message);
+        }
+    }
+}
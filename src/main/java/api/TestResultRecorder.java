@@ -0,0 +1,186 @@
+package api;
+
+import api.model.ResultSummary;
+import api.model.TestResult;
+import api.util.ExcelTestCaseReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streams every finished test case to the result files of this run as it completes: one JSON
+ * line in {@code results.jsonl} and one {@code <testcase>} in {@code TEST-api.xml}. Only running
+ * totals are kept in memory. With {@code -DhtmlReport=true} a compact HTML summary is generated
+ * from the JSONL stream when the files are closed, and with {@code -DexcelWriteBack=true} the
+ * results are written into a copy of the test case workbook (by {@link ShardResultMerger} for
+ * sharded runs). With {@code -DperformanceBaseline=true} response times are compared with the
+ * last green runs by {@link PerformanceBaseline} first (again by {@link ShardResultMerger} for
+ * sharded runs), and the comparison becomes part of the HTML summary.
+ * <p>
+ * Sharded runs write {@code results-shard-<index>-of-<count>.jsonl}, which
+ * {@link ShardResultMerger} combines into a single report. The files are created by
+ * {@link #open()} when the run starts, also for a shard that owns no test cases.
+ */
+public class TestResultRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(TestResultRecorder.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ResultSummary summary = new ResultSummary();
+    private static BufferedWriter writer;
+    private static JUnitXmlReportWriter junitWriter;
+    private static long startedAtMs;
+    private static boolean shutdownHookAdded;
+
+    public void record(TestResult result) {
+        result.setShardIndex(RunOptions.getShardIndex());
+        result.setShardCount(RunOptions.getShardCount());
+        if (result.getFinishedAtMs() == 0) {
+            result.setFinishedAtMs(System.currentTimeMillis());
+        }
+        if (result.getFingerprint() == null) {
+            try {
+                result.setFingerprint(IncrementalRunManager.getInstance().getFingerprint(result.getTCID()));
+            } catch (RuntimeException e) {
+                // The result matters more than its fingerprint
+                logger.warn("Failed to fingerprint TCID: {}", result.getTCID(), e);
+            }
+        }
+        synchronized (TestResultRecorder.class) {
+            try {
+                openWriters();
+                writer.write(objectMapper.writeValueAsString(result));
+                writer.newLine();
+                writer.flush();
+                junitWriter.append(result);
+                summary.add(result);
+                LiveMetrics.caseFinished(result);
+            } catch (IOException | TestException e) {
+                logger.error("Failed to record result for TCID: {}", result.getTCID(), e);
+            }
+        }
+        if (result.getStatus() != TestResult.Status.SKIPPED) {
+            TestTimingStore.getInstance().recordDuration(result.getTCID(), result.getEndpointKey(), result.getDurationMs());
+            IncrementalRunManager.getInstance().recordOutcome(result);
+        }
+        logger.info("Recorded result for TCID: {} -> {}", result.getTCID(), result.getStatus());
+    }
+
+    public static ResultSummary getSummary() {
+        return summary.copy();
+    }
+
+    public static Path getResultFile() {
+        return Paths.get(RunOptions.getResultDirectory(), getFileName("results", "jsonl"));
+    }
+
+    public static Path getJUnitXmlFile() {
+        return Paths.get(RunOptions.getResultDirectory(), getFileName("TEST-api", "xml"));
+    }
+
+    public static Path getPerformanceFile() {
+        return Paths.get(RunOptions.getResultDirectory(), getFileName("performance", "json"));
+    }
+
+    public static Path getHtmlFile() {
+        return Paths.get(RunOptions.getResultDirectory(), getFileName("report", "html"));
+    }
+
+    /**
+     * Creates the result files before the first case finishes, so that a shard which owns no
+     * test cases still leaves an (empty) result file for {@link ShardResultMerger}.
+     */
+    public static void open() {
+        synchronized (TestResultRecorder.class) {
+            try {
+                openWriters();
+            } catch (IOException e) {
+                throw new TestException("Failed to open result file " + getResultFile(), e);
+            }
+        }
+    }
+
+    /**
+     * Completes the JUnit XML report and writes the HTML summary. Called by the headless runner
+     * and, for Cucumber runs, from a shutdown hook.
+     */
+    public static void close() {
+        synchronized (TestResultRecorder.class) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close result file", e);
+            }
+            writer = null;
+            try {
+                junitWriter.close();
+                logger.info("Wrote JUnit XML report to {}", junitWriter.getFile().toAbsolutePath());
+            } catch (TestException e) {
+                logger.warn("Failed to complete JUnit XML report", e);
+            }
+            junitWriter = null;
+            List<PerformanceBaseline.Comparison> comparisons = Collections.emptyList();
+            if (RunOptions.isPerformanceBaseline() && RunOptions.isShardingEnabled()) {
+                // A run is green only if every shard is; the merger compares the merged results
+                logger.info("Leaving the performance baseline to ShardResultMerger");
+            } else if (RunOptions.isPerformanceBaseline()) {
+                try {
+                    comparisons = new PerformanceBaseline().compare(getResultFile(), getPerformanceFile(),
+                            System.currentTimeMillis() - startedAtMs);
+                } catch (TestException e) {
+                    logger.warn("Failed to compare with the performance baseline", e);
+                }
+            }
+            if (RunOptions.isHtmlReport()) {
+                try {
+                    new HtmlSummaryWriter().write(getResultFile(), getHtmlFile(), comparisons);
+                } catch (TestException e) {
+                    logger.warn("Failed to write HTML summary", e);
+                }
+            }
+            if (RunOptions.isExcelWriteBack() && RunOptions.isShardingEnabled()) {
+                // Each shard only has its own rows; the merger writes the workbook for all of them
+                logger.info("Leaving the workbook write-back to ShardResultMerger");
+            } else if (RunOptions.isExcelWriteBack()) {
+                try {
+                    Path workbook = Paths.get(ExcelTestCaseReader.getWorkbookPath(APIConfigManager.getInstance().getCurrentProject()));
+                    new ExcelResultWriter().write(workbook, getResultFile(), ExcelResultWriter.getDefaultOutputFile());
+                } catch (TestException e) {
+                    logger.warn("Failed to write results into the test case workbook", e);
+                }
+            }
+        }
+    }
+
+    private static String getFileName(String baseName, String extension) {
+        return RunOptions.isShardingEnabled()
+                ? String.format("%s-shard-%d-of-%d.%s", baseName, RunOptions.getShardIndex(), RunOptions.getShardCount(), extension)
+                : baseName + "." + extension;
+    }
+
+    private static void openWriters() throws IOException {
+        if (writer == null) {
+            Path resultFile = getResultFile();
+            Files.createDirectories(resultFile.getParent());
+            writer = Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8);
+            startedAtMs = System.currentTimeMillis();
+            junitWriter = new JUnitXmlReportWriter("api", getJUnitXmlFile());
+            if (!shutdownHookAdded) {
+                // A long-lived runner reopens the files for every run
+                Runtime.getRuntime().addShutdownHook(new Thread(TestResultRecorder::close));
+                shutdownHookAdded = true;
+            }
+            logger.info("Writing test results to {}", resultFile.toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package api;
+
+import api.model.TestCaseGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders dependency groups by their estimated duration from {@link TestTimingStore} so the
+ * slowest work starts first and does not end up as the tail of a parallel run.
+ */
+public class TestScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(TestScheduler.class);
+    private final TestTimingStore timingStore;
+
+    public TestScheduler() {
+        this(TestTimingStore.getInstance());
+    }
+
+    public TestScheduler(TestTimingStore timingStore) {
+        this.timingStore = timingStore;
+    }
+
+    public long estimate(TestCaseGroup group) {
+        return timingStore.estimate(group.getTestCases());
+    }
+
+    public List<TestCaseGroup> orderLongestFirst(List<TestCaseGroup> groups) {
+        return orderLongestFirst(groups, estimates(groups));
+    }
+
+    /**
+     * Longest-processing-time-first assignment: each group, longest first, goes to the worker
+     * with the smallest estimated load. The result only depends on the groups and the timing
+     * store, so all shards sharing the same store compute the same split.
+     */
+    public List<List<TestCaseGroup>> balance(List<TestCaseGroup> groups, int workerCount) {
+        List<List<TestCaseGroup>> assignments = new ArrayList<>();
+        long[] loads = new long[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            assignments.add(new ArrayList<>());
+        }
+        Map<TestCaseGroup, Long> estimates = estimates(groups);
+        for (TestCaseGroup group : orderLongestFirst(groups, estimates)) {
+            int target = 0;
+            for (int i = 1; i < workerCount; i++) {
+                if (loads[i] < loads[target]) {
+                    target = i;
+                }
+            }
+            assignments.get(target).add(group);
+            loads[target] += estimates.get(group);
+        }
+        for (int i = 0; i < workerCount; i++) {
+            logger.debug("Worker {} estimated load: {} ms for {} groups", i, loads[i], assignments.get(i).size());
+        }
+        return assignments;
+    }
+
+    // Estimating scans the whole timing store, so it is done once per group and not per comparison
+    private Map<TestCaseGroup, Long> estimates(List<TestCaseGroup> groups) {
+        Map<TestCaseGroup, Long> estimates = new IdentityHashMap<>();
+        for (TestCaseGroup group : groups) {
+            estimates.put(group, estimate(group));
+        }
+        return estimates;
+    }
+
+    private static List<TestCaseGroup> orderLongestFirst(List<TestCaseGroup> groups, Map<TestCaseGroup, Long> estimates) {
+        List<TestCaseGroup> ordered = new ArrayList<>(groups);
+        ordered.sort(Comparator.comparingLong((TestCaseGroup group) -> estimates.get(group)).reversed()
+                .thenComparing(TestCaseGroup::getGroupId));
+        return ordered;
+    }
+}
@@ -0,0 +1,138 @@
+package api;
+
+import api.model.APITestCase;
+import api.model.TestCaseGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Splits the runnable catalog into {@code shardCount} deterministic partitions so a run can be
+ * spread over several JVMs. Test cases linked through [TestSetup]/[TestTearDown] conditions
+ * always land in the same shard.
+ */
+public class TestShardManager {
+    private static final Logger logger = LoggerFactory.getLogger(TestShardManager.class);
+    private static Set<String> currentShardTCIDs;
+
+    private final APITestCaseManager apiTestCaseManager;
+
+    public TestShardManager() {
+        this.apiTestCaseManager = new APITestCaseManager();
+    }
+
+    public boolean isInCurrentShard(String tcid) {
+        if (!RunOptions.isShardingEnabled()) {
+            return true;
+        }
+        return getCurrentShardTCIDs().contains(tcid);
+    }
+
+    public Set<String> getCurrentShardTCIDs() {
+        synchronized (TestShardManager.class) {
+            if (currentShardTCIDs == null) {
+                int shardIndex = RunOptions.getShardIndex();
+                int shardCount = RunOptions.getShardCount();
+                List<TestCaseGroup> groups = buildDependencyGroups(apiTestCaseManager.getRunnableTestCases());
+                Set<String> tcids = new HashSet<>();
+                for (TestCaseGroup group : getShard(groups, shardIndex, shardCount)) {
+                    tcids.addAll(group.getTCIDs());
+                }
+                currentShardTCIDs = Collections.unmodifiableSet(tcids);
+                logger.info("Shard {}/{} owns {} test cases", shardIndex, shardCount, tcids.size());
+            }
+            return currentShardTCIDs;
+        }
+    }
+
+    public static void clearCache() {
+        synchronized (TestShardManager.class) {
+            currentShardTCIDs = null;
+        }
+    }
+
+    /**
+     * Groups runnable test cases that reference the same setup/teardown TCIDs (directly or
+     * transitively). Groups are sorted by id, which is the lowest TCID they contain.
+     */
+    public List<TestCaseGroup> buildDependencyGroups(List<APITestCase> testCases) {
+        Map<String, String> parents = new HashMap<>();
+        for (APITestCase testCase : testCases) {
+            find(parents, testCase.getTCID());
+            for (String dependency : apiTestCaseManager.getDependencyTCIDs(testCase)) {
+                union(parents, testCase.getTCID(), dependency);
+            }
+        }
+
+        Map<String, List<APITestCase>> members = new HashMap<>();
+        for (APITestCase testCase : testCases) {
+            members.computeIfAbsent(find(parents, testCase.getTCID()), k -> new ArrayList<>()).add(testCase);
+        }
+
+        List<TestCaseGroup> groups = new ArrayList<>();
+        for (List<APITestCase> groupCases : members.values()) {
+            groupCases.sort(Comparator.comparing(APITestCase::getTCID));
+            groups.add(new TestCaseGroup(groupCases.get(0).getTCID(), groupCases));
+        }
+        groups.sort(Comparator.comparing(TestCaseGroup::getGroupId));
+        logger.debug("Built {} dependency groups from {} test cases", groups.size(), testCases.size());
+        return groups;
+    }
+
+    /**
+     * Returns the groups owned by {@code shardIndex} (0-based). With the default {@code hash}
+     * strategy assignment only depends on the group id; with {@code -DshardStrategy=duration}
+     * groups are balanced by historical timings, which requires every shard to read the same
+     * timing store; {@link ShardResultMerger} reports TCIDs that more than one shard ran.
+     */
+    public List<TestCaseGroup> getShard(List<TestCaseGroup> groups, int shardIndex, int shardCount) {
+        validateShard(shardIndex, shardCount);
+        String strategy = RunOptions.getShardStrategy();
+        if ("duration".equalsIgnoreCase(strategy)) {
+            return new TestScheduler().balance(groups, shardCount).get(shardIndex);
+        }
+        if (!"hash".equalsIgnoreCase(strategy)) {
+            throw new TestException.ConfigurationException("Unknown shard strategy: " + strategy);
+        }
+        List<TestCaseGroup> shard = new ArrayList<>();
+        for (TestCaseGroup group : groups) {
+            if (Math.floorMod(group.getGroupId().hashCode(), shardCount) == shardIndex) {
+                shard.add(group);
+            }
+        }
+        return shard;
+    }
+
+    private static void validateShard(int shardIndex, int shardCount) {
+        if (shardCount < 1) {
+            throw new TestException.ConfigurationException("shardCount must be at least 1 but was " + shardCount);
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new TestException.ConfigurationException(
+                    String.format("shardIndex must be between 0 and %d but was %d", shardCount - 1, shardIndex));
+        }
+    }
+
+    private static String find(Map<String, String> parents, String tcid) {
+        String root = parents.computeIfAbsent(tcid, k -> k);
+        if (!root.equals(tcid)) {
+            root = find(parents, root);
+            parents.put(tcid, root);
+        }
+        return root;
+    }
+
+    private static void union(Map<String, String> parents, String first, String second) {
+        String firstRoot = find(parents, first);
+        String secondRoot = find(parents, second);
+        if (!firstRoot.equals(secondRoot)) {
+            // Keep the lexically smaller root so the structure does not depend on input order
+            if (firstRoot.compareTo(secondRoot) < 0) {
+                parents.put(secondRoot, firstRoot);
+            } else {
+                parents.put(firstRoot, secondRoot);
+            }
+        }
+    }
+}
@@ -7,7 +7,8 @@ import java.util.List;
 public class TestTearDownManager {
     private final APITestCaseManager apiTestCaseManager;
     private final APITestExecutionManager apiTestExecutionManager;
-    private static final List<String> pendingTearDownCases = new ArrayList<>();
+    // Per thread: a scenario runs on one thread, and parallel scenarios must not run each other's teardowns
+    private static final ThreadLocal<List<String>> pendingTearDownCases = ThreadLocal.withInitial(ArrayList::new);
 
     public TestTearDownManager() {
         this.apiTestCaseManager = new APITestCaseManager();
@@ -16,24 +17,17 @@ public class TestTearDownManager {
 
     public void registerTearDownTestCases(APITestCase testCase) {
         List<String> tearDownTCIDs = apiTestCaseManager.getConditionTCIDs(testCase, "[TestTearDown]");
-        synchronized (pendingTearDownCases) {
-            pendingTearDownCases.addAll(tearDownTCIDs);
-        }
+        pendingTearDownCases.get().addAll(tearDownTCIDs);
     }
 
     public void executeTearDownTestCases() {
-        List<String> casesToExecute;
-        synchronized (pendingTearDownCases) {
-            casesToExecute = new ArrayList<>(pendingTearDownCases);
-            pendingTearDownCases.clear();
-        }
+        List<String> casesToExecute = new ArrayList<>(pendingTearDownCases.get());
+        pendingTearDownCases.get().clear();
         for (String tearDownTCID : casesToExecute) {
             apiTestExecutionManager.executeTestCase(tearDownTCID);
         }
     }
     public static boolean hasPendingTearDownCases() {
-        synchronized (pendingTearDownCases) {
-            return !pendingTearDownCases.isEmpty();
-        }
+        return !pendingTearDownCases.get().isEmpty();
     }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package api;
+
+import api.model.APITestCase;
+import api.util.JsonFileStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Local store of per-TCID durations from previous runs, used to schedule long cases first and
+ * to balance shards. Durations are smoothed across runs and written back when the JVM exits;
+ * concurrent runs on one machine merge their updates under a file lock.
+ */
+public class TestTimingStore {
+    private static final Logger logger = LoggerFactory.getLogger(TestTimingStore.class);
+    private static final double SMOOTHING = 0.5;
+    private static volatile TestTimingStore instance;
+
+    private final JsonFileStore<Timing> store;
+    private final Map<String, Timing> timings;
+    private final Map<String, Timing> updates = new HashMap<>();
+    // Medians by endpoint and of all cases, computed on first use and dropped when a duration changes
+    private Map<String, Long> endpointMedians;
+    private Long overallMedian;
+
+    TestTimingStore(Path storeFile) {
+        this.store = new JsonFileStore<>(storeFile, new TypeReference<Map<String, Timing>>() {});
+        this.timings = new HashMap<>(store.read());
+    }
+
+    public static TestTimingStore getInstance() {
+        if (instance == null) {
+            synchronized (TestTimingStore.class) {
+                if (instance == null) {
+                    instance = new TestTimingStore(Paths.get(RunOptions.getTimingStoreFile()));
+                    Runtime.getRuntime().addShutdownHook(new Thread(instance::save));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized void recordDuration(String tcid, String endpointKey, long durationMs) {
+        Timing timing = smooth(timings.get(tcid), endpointKey, durationMs);
+        timings.put(tcid, timing);
+        updates.put(tcid, timing);
+        endpointMedians = null;
+        overallMedian = null;
+    }
+
+    public synchronized OptionalLong getDuration(String tcid) {
+        Timing timing = timings.get(tcid);
+        return timing == null ? OptionalLong.empty() : OptionalLong.of(timing.getDurationMs());
+    }
+
+    /**
+     * Returns the recorded duration, or for cases without history the median of cases on the same
+     * endpoint, then the median of all cases, then {@code -DdefaultDurationMs}.
+     */
+    public synchronized long estimate(APITestCase testCase) {
+        Timing timing = timings.get(testCase.getTCID());
+        if (timing != null) {
+            return timing.getDurationMs();
+        }
+        if (endpointMedians == null) {
+            computeMedians();
+        }
+        Long sameEndpoint = endpointMedians.get(testCase.getEndpointKey());
+        if (sameEndpoint != null) {
+            return sameEndpoint;
+        }
+        return overallMedian != null ? overallMedian : RunOptions.getDefaultDurationEstimateMs();
+    }
+
+    private void computeMedians() {
+        Map<String, List<Long>> byEndpoint = new HashMap<>();
+        List<Long> all = new ArrayList<>();
+        for (Timing known : timings.values()) {
+            all.add(known.getDurationMs());
+            byEndpoint.computeIfAbsent(known.getEndpointKey(), key -> new ArrayList<>()).add(known.getDurationMs());
+        }
+        endpointMedians = new HashMap<>();
+        for (Map.Entry<String, List<Long>> entry : byEndpoint.entrySet()) {
+            endpointMedians.put(entry.getKey(), median(entry.getValue()));
+        }
+        overallMedian = all.isEmpty() ? null : median(all);
+    }
+
+    public long estimate(Collection<APITestCase> testCases) {
+        long total = 0;
+        for (APITestCase testCase : testCases) {
+            total += estimate(testCase);
+        }
+        return total;
+    }
+
+    public synchronized void save() {
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            store.merge(updates);
+            logger.info("Saved {} test case timings to {}", updates.size(), store.getFile().toAbsolutePath());
+            updates.clear();
+        } catch (IOException e) {
+            logger.warn("Failed to save test case timings to {}", store.getFile(), e);
+        }
+    }
+
+    private static Timing smooth(Timing previous, String endpointKey, long durationMs) {
+        Timing timing = new Timing();
+        timing.setEndpointKey(endpointKey);
+        if (previous == null) {
+            timing.setDurationMs(durationMs);
+            timing.setSamples(1);
+        } else {
+            timing.setDurationMs(Math.round(SMOOTHING * durationMs + (1 - SMOOTHING) * previous.getDurationMs()));
+            timing.setSamples(previous.getSamples() + 1);
+        }
+        return timing;
+    }
+
+    private static long median(List<Long> values) {
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+
+    public static class Timing {
+        private long durationMs;
+        private String endpointKey;
+        private int samples;
+
+        public long getDurationMs() { return durationMs; }
+        public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+        public String getEndpointKey() { return endpointKey; }
+        public void setEndpointKey(String endpointKey) { this.endpointKey = endpointKey; }
+
+        public int getSamples() { return samples; }
+        public void setSamples(int samples) { this.samples = samples; }
+    }
+}
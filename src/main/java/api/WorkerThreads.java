@@ -0,0 +1,49 @@
+package api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the test case workers. On Java 21 and later the workers are virtual
+ * threads, so a request waiting for a {@link RequestThrottle} slot, a retry backoff or a slow
+ * response parks only its virtual thread and leaves the carrier free for other workers. The
+ * sources are compiled for Java 8, so virtual threads are looked up reflectively; on older
+ * JVMs, or with {@code -DvirtualThreads=false}, workers are platform threads.
+ * <p>
+ * Threads are named {@code <prefix>1}, {@code <prefix>2}, ... either way, which keeps the
+ * per-thread seeding of {@link api.util.TestDataGenerator} unchanged.
+ */
+public class WorkerThreads {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerThreads.class);
+
+    private WorkerThreads() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static ThreadFactory named(String prefix) {
+        if (RunOptions.isVirtualThreads()) {
+            ThreadFactory virtual = virtualThreadFactory(prefix);
+            if (virtual != null) {
+                return virtual;
+            }
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + threadNumber.incrementAndGet());
+    }
+
+    // Thread.ofVirtual().name(prefix, 1).factory()
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            logger.debug("Virtual threads not available on Java {}, using platform threads", System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
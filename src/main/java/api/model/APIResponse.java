@@ -7,28 +7,38 @@ import org.slf4j.LoggerFactory;
 import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
 public class APIResponse {
     private static final Logger logger = LoggerFactory.getLogger(APIResponse.class);
-    private final Response response;
+    private Response response;
     private JsonPath jsonPath;
+    private final int statusCode;
+    private long responseTime;
+    private boolean shared;
+    private long validationNanos;
+    private String requestFingerprint;
 
     public APIResponse(Response response) {
         this.response = response;
+        this.statusCode = response.getStatusCode();
+        this.responseTime = response.getTime();
     }
 
     public int getStatusCode() {
-        return response.getStatusCode();
+        return statusCode;
     }
 
     public String getBodyAsString() {
-        return response.getBody().asString();
+        return getResponse().getBody().asString();
     }
 
     public JsonPath jsonPath() {
         if (jsonPath == null) {
+            Response response = getResponse();
             String contentType = response.getContentType();
             if (contentType != null && contentType.contains("application/xml")) {
                 String json = APIResponseConverter.convertXmlToJson(response.getBody().asString());
@@ -40,8 +50,75 @@ public class APIResponse {
         return jsonPath;
     }
 
+    /**
+     * The whole parsed body as maps, lists and plain values.
+     */
+    public Object getBodyAsObject() {
+        return jsonPath().get("$");
+    }
+
+    public String getRequestFingerprint() {
+        return requestFingerprint;
+    }
+
+    public void setRequestFingerprint(String requestFingerprint) {
+        this.requestFingerprint = requestFingerprint;
+    }
+
+    /**
+     * Marks a response shared with an identical request already in flight. Its response time
+     * becomes the time this request waited, as the call itself was timed for the other request.
+     */
+    public void markShared(long waitedMs) {
+        this.shared = true;
+        this.responseTime = waitedMs;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    public void addValidationTime(long nanos) {
+        validationNanos += nanos;
+    }
+
+    public long getValidationTimeMs() {
+        return validationNanos / 1_000_000;
+    }
+
+    /**
+     * Reads the given JSON paths into a map so the values can outlive the response body.
+     */
+    public Map<String, Object> extractValues(Collection<String> paths) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String path : paths) {
+            values.put(path, jsonPath().get(path));
+        }
+        return values;
+    }
+
+    /**
+     * Drops the body and the parsed JSON once all needed fields have been read. Status code and
+     * response time stay available.
+     */
+    public void evictBody() {
+        response = null;
+        jsonPath = null;
+    }
+
+    public boolean isBodyEvicted() {
+        return response == null;
+    }
+
+    private Response getResponse() {
+        if (response == null) {
+            throw new IllegalStateException("Response body has already been evicted");
+        }
+        return response;
+    }
+
     public Map<String, String> getHeaders() {
-        return response.getHeaders().asList().stream()
+        return getResponse().getHeaders().asList().stream()
                 .collect(java.util.stream.Collectors.toMap(
                         io.restassured.http.Header::getName,
                         io.restassured.http.Header::getValue,
@@ -50,11 +127,11 @@ public class APIResponse {
     }
 
     public long getResponseTime() {
-        return response.getTime();
+        return responseTime;
     }
 
     public Optional<String> getContentType() {
-        return Optional.ofNullable(response.getContentType());
+        return Optional.ofNullable(getResponse().getContentType());
     }
 
     public boolean hasJsonPath(String path) {
@@ -65,7 +142,7 @@ public class APIResponse {
         logger.info("Response Status Code: {}", getStatusCode());
         logger.info("Response Headers:\n{}", getHeaders());
 
-        String contentType = response.getContentType();
+        String contentType = getResponse().getContentType();
         if (contentType != null && contentType.contains("application/xml")) {
             logger.info("Response Body (XML):\n{}", Utils.formatXml(getBodyAsString()));
         } else {
@@ -24,10 +24,13 @@ public class APITestCase {
     private Map<String, String> dynamicValidationExpectedChanges;
     private List<String> queryParams;
     private List<String> pathParams;
+    private String schema;
+    private String maxResponseTime;
+    private volatile ValidationPlan validationPlan;
 
     // Getters and setters
     public String getTCID() { return tcid; }
-    public void setTCID(String tcid) { this.tcid = tcid; }
+    public void setTCID(String tcid) { this.tcid = tcid; this.validationPlan = null; }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -63,12 +66,24 @@ public class APITestCase {
     public void setExpStatus(int expStatus) { this.expStatus = expStatus; }
 
     public List<String> getExpResult() { return expResult; }
-    public void setExpResult(List<String> expResult) { this.expResult = expResult; }
+    public void setExpResult(List<String> expResult) { this.expResult = expResult; this.validationPlan = null; }
     public Map<String, String> getExpResultAsMap() {
         return Utils.parseKeyValuePairs(expResult);
     }
     public List<String> getSaveFields() { return saveFields; }
-    public void setSaveFields(List<String> saveFields) { this.saveFields = saveFields; }
+    public void setSaveFields(List<String> saveFields) { this.saveFields = saveFields; this.validationPlan = null; }
+
+    /**
+     * The parsed expectations and save fields, compiled on first use and shared afterwards.
+     */
+    public ValidationPlan getValidationPlan() {
+        ValidationPlan plan = validationPlan;
+        if (plan == null) {
+            plan = ValidationPlan.compile(tcid, expResult, saveFields);
+            validationPlan = plan;
+        }
+        return plan;
+    }
 
     public String getDynamicValidationTCID() { return dynamicValidationTCID; }
     public void setDynamicValidationTCID(String dynamicValidationTCID) { this.dynamicValidationTCID = dynamicValidationTCID; }
@@ -81,6 +96,12 @@ public class APITestCase {
 
     public List<String> getPathParams() { return pathParams; }
     public void setPathParams(List<String> pathParams) { this.pathParams = pathParams; }
+
+    public String getSchema() { return schema; }
+    public void setSchema(String schema) { this.schema = schema; }
+
+    public String getMaxResponseTime() { return maxResponseTime; }
+    public void setMaxResponseTime(String maxResponseTime) { this.maxResponseTime = maxResponseTime; }
     // Validation method
     public boolean isValid() {
         return tcid != null && !tcid.isEmpty() &&
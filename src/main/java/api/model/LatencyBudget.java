@@ -0,0 +1,112 @@
+package api.model;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Response time limits of a test case, parsed from its Max Response Time column or the
+ * {@code maxResponseTime} entry of its endpoint. Entries are separated by commas or new lines:
+ * <ul>
+ *     <li>{@code 800ms} or {@code max<=2s}: no response may take longer,</li>
+ *     <li>{@code p95<=300ms}: the 95th percentile of the samples must not exceed 300 ms,</li>
+ *     <li>{@code runs=20}: send the request 20 times to collect the samples (default 1).</li>
+ * </ul>
+ * Budgets are immutable and shared by every execution of the case.
+ */
+public final class LatencyBudget {
+    private static final Pattern LIMIT_PATTERN = Pattern.compile("^(?:(max|p\\d{1,2}(?:\\.\\d+)?)\\s*(?:<=|=|:)\\s*)?(\\d+)\\s*(ms|s)?$");
+    private static final Pattern RUNS_PATTERN = Pattern.compile("^runs\\s*(?:=|:)\\s*(\\d+)$");
+
+    private final Map<Double, Long> limits;
+    private final int runs;
+
+    private LatencyBudget(Map<Double, Long> limits, int runs) {
+        this.limits = limits;
+        this.runs = runs;
+    }
+
+    public static LatencyBudget parse(String text) {
+        Map<Double, Long> limits = new TreeMap<>();
+        int runs = 1;
+        for (String entry : text.split("[,\\n]")) {
+            String trimmed = entry.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Matcher runsMatcher = RUNS_PATTERN.matcher(trimmed);
+            if (runsMatcher.matches()) {
+                runs = Math.max(1, Integer.parseInt(runsMatcher.group(1)));
+                continue;
+            }
+            Matcher matcher = LIMIT_PATTERN.matcher(trimmed);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid response time limit: " + entry.trim());
+            }
+            String percentile = matcher.group(1);
+            long millis = Long.parseLong(matcher.group(2)) * ("s".equals(matcher.group(3)) ? 1000 : 1);
+            limits.put(percentile == null || "max".equals(percentile) ? 100.0 : Double.parseDouble(percentile.substring(1)), millis);
+        }
+        return new LatencyBudget(Collections.unmodifiableMap(limits), runs);
+    }
+
+    /**
+     * Returns a message for every limit the samples exceed, with the distribution of the samples.
+     */
+    public List<String> findViolations(List<Long> samplesMs) {
+        List<String> violations = new ArrayList<>();
+        long[] sorted = sort(samplesMs);
+        for (Map.Entry<Double, Long> limit : limits.entrySet()) {
+            long actual = percentile(sorted, limit.getKey());
+            if (actual > limit.getValue()) {
+                violations.add(String.format("%s response time %d ms exceeds %d ms (%s)",
+                        label(limit.getKey()), actual, limit.getValue(), describe(samplesMs)));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Summarises samples as {@code n=20 min=12 p50=30 p90=41 p95=55 p99=80 max=80 ms}.
+     */
+    public static String describe(List<Long> samplesMs) {
+        long[] sorted = sort(samplesMs);
+        if (sorted.length == 0) {
+            return "n=0";
+        }
+        return String.format("n=%d min=%d p50=%d p90=%d p95=%d p99=%d max=%d ms", sorted.length, sorted[0],
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 95), percentile(sorted, 99),
+                sorted[sorted.length - 1]);
+    }
+
+    // Nearest-rank percentile, so every reported value is an observed response time
+    public static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+
+    public static long[] sort(Collection<Long> samplesMs) {
+        long[] sorted = new long[samplesMs.size()];
+        int i = 0;
+        for (long sample : samplesMs) {
+            sorted[i++] = sample;
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static String label(double percentile) {
+        if (percentile == 100.0) {
+            return "max";
+        }
+        return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+    }
+
+    // Getters
+    public Map<Double, Long> getLimits() { return limits; }
+    public int getRuns() { return runs; }
+    public boolean isEmpty() { return limits.isEmpty(); }
+}
@@ -0,0 +1,42 @@
+package api.model;
+
+import api.util.PooledBuffer;
+import io.restassured.http.Method;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A request with its templates rendered and its variables expanded, ready to be sent. Preparing
+ * needs no response, so it can happen on another thread while earlier requests are in flight.
+ * The body stays in the pooled buffer it was rendered into and is released once it was sent.
+ */
+public final class PreparedRequest {
+    private final String endpointKey;
+    private final String url;
+    private final Method method;
+    private final PooledBuffer body;
+    private final Map<String, String> headers;
+    private final Map<String, String> queryParams;
+    private final Map<String, String> pathParams;
+
+    public PreparedRequest(String endpointKey, String url, Method method, PooledBuffer body, Map<String, String> headers,
+                           Map<String, String> queryParams, Map<String, String> pathParams) {
+        this.endpointKey = endpointKey;
+        this.url = url;
+        this.method = method;
+        this.body = body;
+        this.headers = headers == null ? null : Collections.unmodifiableMap(headers);
+        this.queryParams = Collections.unmodifiableMap(queryParams);
+        this.pathParams = Collections.unmodifiableMap(pathParams);
+    }
+
+    // Getters
+    public String getEndpointKey() { return endpointKey; }
+    public String getUrl() { return url; }
+    public Method getMethod() { return method; }
+    public PooledBuffer getBody() { return body; }
+    public Map<String, String> getHeaders() { return headers; }
+    public Map<String, String> getQueryParams() { return queryParams; }
+    public Map<String, String> getPathParams() { return pathParams; }
+}
@@ -0,0 +1,56 @@
+package api.model;
+
+/**
+ * Running totals over the recorded test results; kept instead of the results themselves so
+ * long runs need constant memory.
+ */
+public class ResultSummary {
+    private int passed;
+    private int failed;
+    private int skipped;
+    private long totalDurationMs;
+
+    public synchronized void add(TestResult result) {
+        totalDurationMs += result.getDurationMs();
+        switch (result.getStatus()) {
+            case PASSED:
+                passed++;
+                break;
+            case FAILED:
+                failed++;
+                break;
+            default:
+                skipped++;
+        }
+    }
+
+    public synchronized ResultSummary copy() {
+        ResultSummary copy = new ResultSummary();
+        copy.passed = passed;
+        copy.failed = failed;
+        copy.skipped = skipped;
+        copy.totalDurationMs = totalDurationMs;
+        return copy;
+    }
+
+    // Getters
+    public synchronized int getTotal() { return passed + failed + skipped; }
+    public synchronized int getPassed() { return passed; }
+    public synchronized int getFailed() { return failed; }
+    public synchronized int getSkipped() { return skipped; }
+    public synchronized long getTotalDurationMs() { return totalDurationMs; }
+
+    public boolean hasFailures() {
+        return getFailed() > 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ResultSummary{" +
+                "passed=" + passed +
+                ", failed=" + failed +
+                ", skipped=" + skipped +
+                ", totalDurationMs=" + totalDurationMs +
+                '}';
+    }
+}
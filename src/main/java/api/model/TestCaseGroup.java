@@ -0,0 +1,38 @@
+package api.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runnable test cases that share [TestSetup]/[TestTearDown] dependencies and therefore
+ * must be scheduled together.
+ */
+public class TestCaseGroup {
+    private final String groupId;
+    private final List<APITestCase> testCases;
+
+    public TestCaseGroup(String groupId, List<APITestCase> testCases) {
+        this.groupId = groupId;
+        this.testCases = new ArrayList<>(testCases);
+    }
+
+    public String getGroupId() { return groupId; }
+
+    public List<APITestCase> getTestCases() { return testCases; }
+
+    public List<String> getTCIDs() {
+        List<String> tcids = new ArrayList<>();
+        for (APITestCase testCase : testCases) {
+            tcids.add(testCase.getTCID());
+        }
+        return tcids;
+    }
+
+    @Override
+    public String toString() {
+        return "TestCaseGroup{" +
+                "groupId='" + groupId + '\'' +
+                ", tcids=" + getTCIDs() +
+                '}';
+    }
+}
@@ -11,6 +11,7 @@ public class TestContext {
     private static final Logger logger = LoggerFactory.getLogger(TestContext.class);
     private static final ThreadLocal<TestContext> instance = ThreadLocal.withInitial(TestContext::new);
     private final Map<String, Object> contextData;
+    private String scenarioName;
 
     private TestContext() {
         this.contextData = new ConcurrentHashMap<>();
@@ -20,6 +21,29 @@ public class TestContext {
         return instance.get();
     }
 
+    /**
+     * Starts a fresh scope for a scenario; anything left over from a previous scenario on this
+     * thread is discarded.
+     */
+    public void startScenario(String name) {
+        if (!contextData.isEmpty()) {
+            logger.debug("Discarding {} context entries left over from scenario: {}", contextData.size(), scenarioName);
+            contextData.clear();
+        }
+        scenarioName = name;
+        logger.debug("Started context for scenario: {}", name);
+    }
+
+    public void endScenario() {
+        logger.debug("Disposed context for scenario: {} with {} entries", scenarioName, contextData.size());
+        contextData.clear();
+        scenarioName = null;
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
     public void setData(String key, Object value) {
         contextData.put(key, value);
         logger.debug("Set context data: {} = {}", key, value);
@@ -0,0 +1,76 @@
+package api.model;
+
+public class TestResult {
+    public enum Status { PASSED, FAILED, SKIPPED }
+
+    private String tcid;
+    private String name;
+    private String endpointKey;
+    private Status status;
+    private long durationMs;
+    private Integer statusCode;
+    private long responseTimeMs;
+    private long validationTimeMs;
+    private String fingerprint;
+    private String requestFingerprint;
+    private boolean shared;
+    private String message;
+    private int shardIndex;
+    private int shardCount;
+    private long finishedAtMs;
+
+    // Getters and setters
+    public String getTCID() { return tcid; }
+    public void setTCID(String tcid) { this.tcid = tcid; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEndpointKey() { return endpointKey; }
+    public void setEndpointKey(String endpointKey) { this.endpointKey = endpointKey; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public Integer getStatusCode() { return statusCode; }
+    public void setStatusCode(Integer statusCode) { this.statusCode = statusCode; }
+
+    public long getResponseTimeMs() { return responseTimeMs; }
+    public void setResponseTimeMs(long responseTimeMs) { this.responseTimeMs = responseTimeMs; }
+
+    public long getValidationTimeMs() { return validationTimeMs; }
+    public void setValidationTimeMs(long validationTimeMs) { this.validationTimeMs = validationTimeMs; }
+
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+    public String getRequestFingerprint() { return requestFingerprint; }
+    public void setRequestFingerprint(String requestFingerprint) { this.requestFingerprint = requestFingerprint; }
+
+    public boolean isShared() { return shared; }
+    public void setShared(boolean shared) { this.shared = shared; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public int getShardIndex() { return shardIndex; }
+    public void setShardIndex(int shardIndex) { this.shardIndex = shardIndex; }
+
+    public int getShardCount() { return shardCount; }
+    public void setShardCount(int shardCount) { this.shardCount = shardCount; }
+
+    public long getFinishedAtMs() { return finishedAtMs; }
+    public void setFinishedAtMs(long finishedAtMs) { this.finishedAtMs = finishedAtMs; }
+
+    @Override
+    public String toString() {
+        return "TestResult{" +
+                "tcid='" + tcid + '\'' +
+                ", status=" + status +
+                ", durationMs=" + durationMs +
+                '}';
+    }
+}
@@ -0,0 +1,158 @@
+package api.model;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The expectations of a test case, parsed once from its Exp Result and Save Fields columns:
+ * <ul>
+ *     <li>field checks on the case's own response ({@code AddItem01.item.amount=100}),</li>
+ *     <li>dynamic expectations on other TCIDs, grouped by TCID, with the operator and numeric
+ *     delta already parsed ({@code Summary01.totalAmount=+100 within 10s}),</li>
+ *     <li>the JSON paths of the fields to save.</li>
+ * </ul>
+ * Plans are immutable and shared by every execution of the case.
+ */
+public final class ValidationPlan {
+    private static final Pattern WITHIN_PATTERN = Pattern.compile("^(.*?)\\s+within\\s+(\\d+)\\s*(ms|s)$");
+
+    private final List<FieldCheck> fieldChecks;
+    private final Map<String, List<DynamicExpectation>> dynamicExpectations;
+    private final List<SaveField> saveFields;
+
+    private ValidationPlan(List<FieldCheck> fieldChecks, Map<String, List<DynamicExpectation>> dynamicExpectations,
+                           List<SaveField> saveFields) {
+        this.fieldChecks = fieldChecks;
+        this.dynamicExpectations = dynamicExpectations;
+        this.saveFields = saveFields;
+    }
+
+    public static ValidationPlan compile(String tcid, List<String> expResult, List<String> saveFieldKeys) {
+        // Later entries for the same key win, as with the former key-value map
+        Map<String, String> expectations = new LinkedHashMap<>();
+        if (expResult != null) {
+            for (String pair : expResult) {
+                String[] keyValue = pair.split("[:=]", 2);
+                if (keyValue.length == 2) {
+                    expectations.remove(keyValue[0].trim());
+                    expectations.put(keyValue[0].trim(), keyValue[1].trim());
+                }
+            }
+        }
+
+        List<FieldCheck> fieldChecks = new ArrayList<>();
+        Map<String, List<DynamicExpectation>> dynamicExpectations = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : expectations.entrySet()) {
+            String key = entry.getKey();
+            if (key.contains(".") && tcid != null && !key.startsWith(tcid)) {
+                String validationTCID = key.substring(0, key.indexOf('.'));
+                dynamicExpectations.computeIfAbsent(validationTCID, k -> new ArrayList<>())
+                        .add(DynamicExpectation.parse(key, pathOf(key), entry.getValue()));
+            } else {
+                fieldChecks.add(new FieldCheck(key, pathOf(key), entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, List<DynamicExpectation>> entry : dynamicExpectations.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        List<SaveField> saveFields = new ArrayList<>();
+        if (saveFieldKeys != null) {
+            for (String key : saveFieldKeys) {
+                saveFields.add(new SaveField(key, pathOf(key)));
+            }
+        }
+        return new ValidationPlan(Collections.unmodifiableList(fieldChecks),
+                Collections.unmodifiableMap(dynamicExpectations), Collections.unmodifiableList(saveFields));
+    }
+
+    // The JSON path is everything after the TCID, so nested paths keep all their segments
+    private static String pathOf(String key) {
+        return key.substring(key.indexOf('.') + 1);
+    }
+
+    // Getters
+    public List<FieldCheck> getFieldChecks() { return fieldChecks; }
+    public Map<String, List<DynamicExpectation>> getDynamicExpectations() { return dynamicExpectations; }
+    public Set<String> getValidationTCIDs() { return dynamicExpectations.keySet(); }
+    public List<SaveField> getSaveFields() { return saveFields; }
+
+    public static final class FieldCheck {
+        private final String key;
+        private final String path;
+        private final String expected;
+
+        FieldCheck(String key, String path, String expected) {
+            this.key = key;
+            this.path = path;
+            this.expected = expected;
+        }
+
+        public String getKey() { return key; }
+        public String getPath() { return path; }
+        public String getExpected() { return expected; }
+    }
+
+    public static final class DynamicExpectation {
+        public enum Operator { INCREASE, DECREASE, EQUALS }
+
+        private final String key;
+        private final String path;
+        private final Operator operator;
+        private final BigDecimal delta;
+        private final String expected;
+        private final long withinMillis;
+
+        private DynamicExpectation(String key, String path, Operator operator, BigDecimal delta, String expected, long withinMillis) {
+            this.key = key;
+            this.path = path;
+            this.operator = operator;
+            this.delta = delta;
+            this.expected = expected;
+            this.withinMillis = withinMillis;
+        }
+
+        static DynamicExpectation parse(String key, String path, String value) {
+            String expected = value.trim();
+            long withinMillis = 0;
+            Matcher matcher = WITHIN_PATTERN.matcher(expected);
+            if (matcher.matches()) {
+                expected = matcher.group(1).trim();
+                long amount = Long.parseLong(matcher.group(2));
+                withinMillis = "s".equals(matcher.group(3)) ? amount * 1000 : amount;
+            }
+            if (expected.startsWith("+") || expected.startsWith("-")) {
+                try {
+                    BigDecimal delta = new BigDecimal(expected.substring(1).trim());
+                    Operator operator = expected.startsWith("+") ? Operator.INCREASE : Operator.DECREASE;
+                    return new DynamicExpectation(key, path, operator, delta, expected, withinMillis);
+                } catch (NumberFormatException e) {
+                    // Not a delta, compared as text
+                }
+            }
+            return new DynamicExpectation(key, path, Operator.EQUALS, null, expected, withinMillis);
+        }
+
+        public String getKey() { return key; }
+        public String getPath() { return path; }
+        public Operator getOperator() { return operator; }
+        public BigDecimal getDelta() { return delta; }
+        public String getExpected() { return expected; }
+        public long getWithinMillis() { return withinMillis; }
+    }
+
+    public static final class SaveField {
+        private final String key;
+        private final String path;
+
+        SaveField(String key, String path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        public String getKey() { return key; }
+        public String getPath() { return path; }
+    }
+}
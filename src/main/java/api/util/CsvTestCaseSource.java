@@ -0,0 +1,123 @@
+package api.util;
+
+import api.model.APITestCase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Reads test cases from a CSV file with the Excel column names in the first record. Fields
+ * follow RFC 4180: they may be quoted, contain commas and line breaks (one list entry per line,
+ * as in Excel) and escape quotes by doubling them. Records are parsed one at a time.
+ */
+public class CsvTestCaseSource implements TestCaseSource {
+    private final Path file;
+
+    public CsvTestCaseSource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Stream<APITestCase> stream() {
+        BufferedReader reader = TestCaseSources.open(file);
+        try {
+            List<String> header = readRecord(reader);
+            if (header == null) {
+                reader.close();
+                return Stream.empty();
+            }
+            Iterator<Map<String, String>> rows = new Iterator<Map<String, String>>() {
+                private List<String> next = readRecord(reader);
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Map<String, String> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 0; i < header.size() && i < next.size(); i++) {
+                        row.put(header.get(i), next.get(i));
+                    }
+                    next = readRecord(reader);
+                    return row;
+                }
+            };
+            return TestCaseSources.toTestCases(rows, reader, getLocation());
+        } catch (IOException | RuntimeException e) {
+            TestCaseSources.closeQuietly(reader);
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+        }
+    }
+
+    @Override
+    public String getLocation() {
+        return file.toString();
+    }
+
+    // Returns null at the end of the file; blank lines are skipped
+    static List<String> readRecord(BufferedReader reader) {
+        try {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean empty = true;
+            int c;
+            while ((c = reader.read()) != -1) {
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                    empty = false;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    empty = false;
+                } else if (ch == '\n' || ch == '\r') {
+                    if (ch == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    if (empty) {
+                        continue;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append(ch);
+                    empty = false;
+                }
+            }
+            if (empty) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package api.util;
+
+import api.model.APITestCase;
+
+import java.util.stream.Stream;
+
+/**
+ * Reads test cases from a sheet of an Excel workbook, by default the project's. The workbook is parsed once as a
+ * whole and cached by {@link ExcelTestCaseReader}; use a CSV, YAML or JSONL catalog for large
+ * generated suites.
+ */
+public class ExcelTestCaseSource implements TestCaseSource {
+    private final String location;
+    private final String sheetName;
+
+    public ExcelTestCaseSource(String location, String sheetName) {
+        this.location = location;
+        this.sheetName = sheetName;
+    }
+
+    @Override
+    public Stream<APITestCase> stream() {
+        return ExcelTestCaseReader.readTestData(location, sheetName).stream();
+    }
+
+    @Override
+    public String getLocation() {
+        return location + "#" + sheetName;
+    }
+}
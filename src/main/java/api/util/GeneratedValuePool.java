@@ -0,0 +1,49 @@
+package api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Values generated ahead of time by a daemon thread so slow generators such as Faker names do
+ * not run on the request path. When the pool is drained the value is generated inline.
+ */
+public class GeneratedValuePool {
+    private static final Logger logger = LoggerFactory.getLogger(GeneratedValuePool.class);
+    private final String name;
+    private final Supplier<String> generator;
+    private final BlockingQueue<String> values;
+
+    public GeneratedValuePool(String name, int capacity, Supplier<String> generator) {
+        this.name = name;
+        this.generator = generator;
+        this.values = new ArrayBlockingQueue<>(capacity);
+        Thread filler = new Thread(this::fill, "data-pool-" + name);
+        filler.setDaemon(true);
+        filler.start();
+    }
+
+    public String next() {
+        String value = values.poll();
+        if (value == null) {
+            logger.debug("Pool {} drained, generating value inline", name);
+            return generator.get();
+        }
+        return value;
+    }
+
+    private void fill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                values.put(generator.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Pool {} stopped filling, values will be generated inline", name, e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package api.util;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Structural comparison of two parsed JSON documents (maps, lists and plain values). Numbers
+ * are compared by value, so {@code 1} and {@code 1.0} are equal; object key order does not
+ * matter, array order does. Differences are reported with their dotted path
+ * ({@code item.tags.0}).
+ * <p>
+ * Ignored fields are dotted paths where {@code *} matches one key or array index
+ * ({@code data.*.createdAt}); a pattern without a dot matches that field name at any depth.
+ */
+public class JsonDiff {
+    private static final int MAX_DIFFERENCES = 50;
+
+    private final List<String[]> ignoredPaths = new ArrayList<>();
+    private final Set<String> ignoredNames = new HashSet<>();
+
+    public JsonDiff(Collection<String> ignoredFields) {
+        for (String field : ignoredFields) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.contains(".")) {
+                ignoredPaths.add(trimmed.split("\\."));
+            } else {
+                ignoredNames.add(trimmed);
+            }
+        }
+    }
+
+    /**
+     * Returns the differences between {@code left} and {@code right}, at most 50.
+     */
+    public List<String> diff(Object left, Object right) {
+        List<String> differences = new ArrayList<>();
+        compare(new ArrayList<>(), left, right, differences);
+        return differences;
+    }
+
+    private void compare(List<String> path, Object left, Object right, List<String> differences) {
+        if (differences.size() >= MAX_DIFFERENCES || isIgnored(path)) {
+            return;
+        }
+        if (left instanceof Map && right instanceof Map) {
+            Map<?, ?> leftMap = (Map<?, ?>) left;
+            Map<?, ?> rightMap = (Map<?, ?>) right;
+            Set<String> keys = new TreeSet<>();
+            for (Object key : leftMap.keySet()) {
+                keys.add(String.valueOf(key));
+            }
+            for (Object key : rightMap.keySet()) {
+                keys.add(String.valueOf(key));
+            }
+            for (String key : keys) {
+                path.add(key);
+                if (leftMap.containsKey(key) && rightMap.containsKey(key)) {
+                    compare(path, leftMap.get(key), rightMap.get(key), differences);
+                } else if (!isIgnored(path)) {
+                    add(differences, path, leftMap.containsKey(key)
+                            ? "only on the left: " + leftMap.get(key)
+                            : "only on the right: " + rightMap.get(key));
+                }
+                path.remove(path.size() - 1);
+            }
+        } else if (left instanceof List && right instanceof List) {
+            List<?> leftList = (List<?>) left;
+            List<?> rightList = (List<?>) right;
+            if (leftList.size() != rightList.size()) {
+                add(differences, path, "array length " + leftList.size() + " != " + rightList.size());
+            }
+            for (int i = 0; i < Math.min(leftList.size(), rightList.size()); i++) {
+                path.add(String.valueOf(i));
+                compare(path, leftList.get(i), rightList.get(i), differences);
+                path.remove(path.size() - 1);
+            }
+        } else if (!valuesEqual(left, right)) {
+            add(differences, path, describe(left) + " != " + describe(right));
+        }
+    }
+
+    private boolean isIgnored(List<String> path) {
+        if (path.isEmpty()) {
+            return false;
+        }
+        if (ignoredNames.contains(path.get(path.size() - 1))) {
+            return true;
+        }
+        for (String[] pattern : ignoredPaths) {
+            if (pattern.length != path.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < pattern.length && matches; i++) {
+                matches = "*".equals(pattern[i]) || pattern[i].equals(path.get(i));
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean valuesEqual(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            try {
+                return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString())) == 0;
+            } catch (NumberFormatException e) {
+                return left.equals(right);
+            }
+        }
+        return Objects.equals(left, right);
+    }
+
+    private static String describe(Object value) {
+        if (value instanceof Map) {
+            return "object";
+        }
+        if (value instanceof List) {
+            return "array";
+        }
+        return value instanceof String ? "\"" + value + "\"" : String.valueOf(value);
+    }
+
+    private static void add(List<String> differences, List<String> path, String difference) {
+        if (differences.size() < MAX_DIFFERENCES) {
+            differences.add((path.isEmpty() ? "(root)" : String.join(".", path)) + ": " + difference);
+        }
+    }
+}
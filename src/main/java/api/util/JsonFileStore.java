@@ -0,0 +1,80 @@
+package api.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+
+/**
+ * A JSON object file keyed by string, shared by concurrent runs on the same machine.
+ * Writes re-read the file under a lock and merge, so updates from other runs are kept.
+ */
+public class JsonFileStore<V> {
+    private static final Logger logger = LoggerFactory.getLogger(JsonFileStore.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Path file;
+    private final TypeReference<Map<String, V>> type;
+
+    public JsonFileStore(Path file, TypeReference<Map<String, V>> type) {
+        this.file = file;
+        this.type = type;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Map<String, V> read() {
+        if (!Files.exists(file)) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable store: {}", file, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    public void merge(Map<String, V> updates) throws IOException {
+        merge(updates, (stored, update) -> update);
+    }
+
+    /**
+     * Like {@link #merge(Map)}, but a key already in the file gets {@code combine(stored, update)},
+     * computed under the lock so values appended by other runs meanwhile are not lost.
+     */
+    public void merge(Map<String, V> updates, BinaryOperator<V> combine) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                Map<String, V> merged = new TreeMap<>(read());
+                for (Map.Entry<String, V> update : updates.entrySet()) {
+                    merged.merge(update.getKey(), update.getValue(), combine);
+                }
+                Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+                objectMapper.writeValue(tempFile.toFile(), merged);
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package api.util;
+
+import api.model.APITestCase;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reads test cases from a JSON Lines file, one object per line, e.g.
+ * {@code {"TCID":"Summary01","Endpoint Key":"summary","Exp Status":200,"Tags":["smoke"]}}.
+ */
+public class JsonLinesTestCaseSource implements TestCaseSource {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<Map<String, Object>>() {};
+    private final Path file;
+
+    public JsonLinesTestCaseSource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Stream<APITestCase> stream() {
+        BufferedReader reader = TestCaseSources.open(file);
+        return TestCaseSources.toTestCases(reader.lines()
+                .filter(line -> !line.trim().isEmpty())
+                .map(this::parse)
+                .iterator(), reader, getLocation());
+    }
+
+    @Override
+    public String getLocation() {
+        return file.toString();
+    }
+
+    private Map<String, Object> parse(String line) {
+        try {
+            return objectMapper.readValue(line, ROW_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid test case line in " + file + ": " + line, e);
+        }
+    }
+}
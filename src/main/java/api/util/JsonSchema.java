@@ -0,0 +1,447 @@
+package api.util;
+
+import api.TestException;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A JSON Schema compiled into a tree of checks, so validating a response does not interpret the
+ * schema document again. Instances are the plain Java values of a parsed body (maps, lists,
+ * strings, numbers, booleans and null).
+ * <p>
+ * Supported keywords: {@code type}, {@code enum}, {@code const}, {@code properties},
+ * {@code required}, {@code additionalProperties}, {@code patternProperties}, {@code items},
+ * {@code minItems}, {@code maxItems}, {@code uniqueItems}, {@code minLength}, {@code maxLength},
+ * {@code pattern}, {@code minimum}, {@code maximum}, {@code exclusiveMinimum},
+ * {@code exclusiveMaximum}, {@code multipleOf}, {@code allOf}, {@code anyOf}, {@code oneOf},
+ * {@code not} and local {@code $ref}s ({@code #/definitions/...}, {@code #/$defs/...}).
+ * Other keywords, such as {@code format}, are ignored.
+ */
+public final class JsonSchema {
+    private static final int MAX_ERRORS = 20;
+    private final List<Check> checks = new ArrayList<>();
+
+    private JsonSchema() {
+    }
+
+    public static JsonSchema compile(Object schema) {
+        return new Compiler(schema).compile(schema);
+    }
+
+    /**
+     * Returns the violations found, each prefixed with the JSON pointer of the offending value;
+     * empty when the instance is valid.
+     */
+    public List<String> validate(Object instance) {
+        List<String> errors = new ArrayList<>();
+        validate(instance, "", errors);
+        return errors.size() > MAX_ERRORS ? new ArrayList<>(errors.subList(0, MAX_ERRORS)) : errors;
+    }
+
+    private void validate(Object value, String pointer, List<String> errors) {
+        for (Check check : checks) {
+            if (errors.size() > MAX_ERRORS) {
+                return;
+            }
+            check.validate(value, pointer, errors);
+        }
+    }
+
+    private boolean isValid(Object value, String pointer) {
+        List<String> errors = new ArrayList<>();
+        validate(value, pointer, errors);
+        return errors.isEmpty();
+    }
+
+    private interface Check {
+        void validate(Object value, String pointer, List<String> errors);
+    }
+
+    private static final class Compiler {
+        private final Object root;
+        private final Map<String, JsonSchema> compiledRefs = new HashMap<>();
+
+        Compiler(Object root) {
+            this.root = root;
+        }
+
+        @SuppressWarnings("unchecked")
+        JsonSchema compile(Object schema) {
+            JsonSchema compiled = new JsonSchema();
+            if (Boolean.FALSE.equals(schema)) {
+                compiled.checks.add((value, pointer, errors) -> errors.add(at(pointer) + "no value is allowed here"));
+                return compiled;
+            }
+            if (!(schema instanceof Map)) {
+                return compiled;
+            }
+            Map<String, Object> keywords = (Map<String, Object>) schema;
+            if (keywords.containsKey("$ref")) {
+                JsonSchema target = resolve(String.valueOf(keywords.get("$ref")));
+                compiled.checks.add(target::validate);
+            }
+            addTypeCheck(compiled, keywords.get("type"));
+            addValueChecks(compiled, keywords);
+            addNumberChecks(compiled, keywords);
+            addStringChecks(compiled, keywords);
+            addObjectChecks(compiled, keywords);
+            addArrayChecks(compiled, keywords);
+            addCombinators(compiled, keywords);
+            return compiled;
+        }
+
+        private JsonSchema resolve(String ref) {
+            JsonSchema compiled = compiledRefs.get(ref);
+            if (compiled != null) {
+                return compiled;
+            }
+            if (!ref.startsWith("#")) {
+                throw new TestException.ConfigurationException("Only local $ref values are supported: " + ref);
+            }
+            Object target = root;
+            for (String token : ref.substring(1).split("/")) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                String name = token.replace("~1", "/").replace("~0", "~");
+                if (!(target instanceof Map) || !((Map<?, ?>) target).containsKey(name)) {
+                    throw new TestException.ConfigurationException("Unresolvable $ref: " + ref);
+                }
+                target = ((Map<?, ?>) target).get(name);
+            }
+            // Registered before compiling so recursive references reuse the same instance
+            JsonSchema placeholder = new JsonSchema();
+            compiledRefs.put(ref, placeholder);
+            placeholder.checks.addAll(compile(target).checks);
+            return placeholder;
+        }
+
+        private void addTypeCheck(JsonSchema compiled, Object type) {
+            if (type == null) {
+                return;
+            }
+            List<String> types = new ArrayList<>();
+            if (type instanceof List) {
+                for (Object t : (List<?>) type) {
+                    types.add(String.valueOf(t));
+                }
+            } else {
+                types.add(String.valueOf(type));
+            }
+            compiled.checks.add((value, pointer, errors) -> {
+                for (String t : types) {
+                    if (hasType(value, t)) {
+                        return;
+                    }
+                }
+                errors.add(at(pointer) + "expected type " + String.join(" or ", types) + " but was " + typeOf(value));
+            });
+        }
+
+        private void addValueChecks(JsonSchema compiled, Map<String, Object> keywords) {
+            if (keywords.get("enum") instanceof List) {
+                List<?> allowed = (List<?>) keywords.get("enum");
+                compiled.checks.add((value, pointer, errors) -> {
+                    for (Object candidate : allowed) {
+                        if (jsonEquals(candidate, value)) {
+                            return;
+                        }
+                    }
+                    errors.add(at(pointer) + "value " + value + " is not one of " + allowed);
+                });
+            }
+            if (keywords.containsKey("const")) {
+                Object expected = keywords.get("const");
+                compiled.checks.add((value, pointer, errors) -> {
+                    if (!jsonEquals(expected, value)) {
+                        errors.add(at(pointer) + "expected " + expected + " but was " + value);
+                    }
+                });
+            }
+        }
+
+        private void addNumberChecks(JsonSchema compiled, Map<String, Object> keywords) {
+            addBound(compiled, keywords, "minimum", Boolean.TRUE.equals(keywords.get("exclusiveMinimum")) ? 1 : 0, true);
+            addBound(compiled, keywords, "maximum", Boolean.TRUE.equals(keywords.get("exclusiveMaximum")) ? -1 : 0, false);
+            if (keywords.get("exclusiveMinimum") instanceof Number) {
+                addBound(compiled, keywords, "exclusiveMinimum", 1, true);
+            }
+            if (keywords.get("exclusiveMaximum") instanceof Number) {
+                addBound(compiled, keywords, "exclusiveMaximum", -1, false);
+            }
+            if (keywords.get("multipleOf") instanceof Number) {
+                BigDecimal divisor = decimal(keywords.get("multipleOf"));
+                compiled.checks.add((value, pointer, errors) -> {
+                    if (value instanceof Number && decimal(value).remainder(divisor).signum() != 0) {
+                        errors.add(at(pointer) + value + " is not a multiple of " + divisor);
+                    }
+                });
+            }
+        }
+
+        // exclusive: 0 allows equality, otherwise the sign the comparison must have
+        private void addBound(JsonSchema compiled, Map<String, Object> keywords, String keyword, int exclusive, boolean lower) {
+            if (!(keywords.get(keyword) instanceof Number)) {
+                return;
+            }
+            BigDecimal bound = decimal(keywords.get(keyword));
+            compiled.checks.add((value, pointer, errors) -> {
+                if (!(value instanceof Number)) {
+                    return;
+                }
+                int comparison = decimal(value).compareTo(bound);
+                boolean valid = exclusive != 0 ? comparison == exclusive : (lower ? comparison >= 0 : comparison <= 0);
+                if (!valid) {
+                    errors.add(at(pointer) + value + " violates " + keyword + " " + bound);
+                }
+            });
+        }
+
+        private void addStringChecks(JsonSchema compiled, Map<String, Object> keywords) {
+            Integer minLength = integer(keywords.get("minLength"));
+            Integer maxLength = integer(keywords.get("maxLength"));
+            Pattern pattern = keywords.get("pattern") instanceof String ? Pattern.compile((String) keywords.get("pattern")) : null;
+            if (minLength == null && maxLength == null && pattern == null) {
+                return;
+            }
+            compiled.checks.add((value, pointer, errors) -> {
+                if (!(value instanceof String)) {
+                    return;
+                }
+                String text = (String) value;
+                int length = text.codePointCount(0, text.length());
+                if (minLength != null && length < minLength) {
+                    errors.add(at(pointer) + "length " + length + " is shorter than " + minLength);
+                }
+                if (maxLength != null && length > maxLength) {
+                    errors.add(at(pointer) + "length " + length + " is longer than " + maxLength);
+                }
+                if (pattern != null && !pattern.matcher(text).find()) {
+                    errors.add(at(pointer) + "'" + text + "' does not match " + pattern.pattern());
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addObjectChecks(JsonSchema compiled, Map<String, Object> keywords) {
+            Map<String, JsonSchema> properties = new LinkedHashMap<>();
+            if (keywords.get("properties") instanceof Map) {
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) keywords.get("properties")).entrySet()) {
+                    properties.put(entry.getKey(), compile(entry.getValue()));
+                }
+            }
+            Map<Pattern, JsonSchema> patternProperties = new LinkedHashMap<>();
+            if (keywords.get("patternProperties") instanceof Map) {
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) keywords.get("patternProperties")).entrySet()) {
+                    patternProperties.put(Pattern.compile(entry.getKey()),
+                            compile(entry.getValue()));
+                }
+            }
+            List<String> required = new ArrayList<>();
+            if (keywords.get("required") instanceof List) {
+                for (Object name : (List<?>) keywords.get("required")) {
+                    required.add(String.valueOf(name));
+                }
+            }
+            Object additional = keywords.get("additionalProperties");
+            JsonSchema additionalProperties = additional == null ? null : compile(additional);
+            if (properties.isEmpty() && patternProperties.isEmpty() && required.isEmpty() && additionalProperties == null) {
+                return;
+            }
+            compiled.checks.add((value, pointer, errors) -> {
+                if (!(value instanceof Map)) {
+                    return;
+                }
+                Map<?, ?> object = (Map<?, ?>) value;
+                for (String name : required) {
+                    if (!object.containsKey(name)) {
+                        errors.add(at(pointer) + "missing required property '" + name + "'");
+                    }
+                }
+                for (Map.Entry<?, ?> entry : object.entrySet()) {
+                    String name = String.valueOf(entry.getKey());
+                    String childPointer = pointer + "/" + name.replace("~", "~0").replace("/", "~1");
+                    boolean matched = false;
+                    JsonSchema property = properties.get(name);
+                    if (property != null) {
+                        property.validate(entry.getValue(), childPointer, errors);
+                        matched = true;
+                    }
+                    for (Map.Entry<Pattern, JsonSchema> patternProperty : patternProperties.entrySet()) {
+                        if (patternProperty.getKey().matcher(name).find()) {
+                            patternProperty.getValue().validate(entry.getValue(), childPointer, errors);
+                            matched = true;
+                        }
+                    }
+                    if (!matched && additionalProperties != null) {
+                        if (Boolean.FALSE.equals(additional)) {
+                            errors.add(at(pointer) + "unexpected property '" + name + "'");
+                        } else {
+                            additionalProperties.validate(entry.getValue(), childPointer, errors);
+                        }
+                    }
+                }
+            });
+        }
+
+        private void addArrayChecks(JsonSchema compiled, Map<String, Object> keywords) {
+            Object items = keywords.get("items");
+            JsonSchema itemSchema = items instanceof Map || items instanceof Boolean ? compile(items) : null;
+            List<JsonSchema> tupleSchemas = new ArrayList<>();
+            if (items instanceof List) {
+                List<?> tuple = (List<?>) items;
+                for (int i = 0; i < tuple.size(); i++) {
+                    tupleSchemas.add(compile(tuple.get(i)));
+                }
+            }
+            Integer minItems = integer(keywords.get("minItems"));
+            Integer maxItems = integer(keywords.get("maxItems"));
+            boolean uniqueItems = Boolean.TRUE.equals(keywords.get("uniqueItems"));
+            if (itemSchema == null && tupleSchemas.isEmpty() && minItems == null && maxItems == null && !uniqueItems) {
+                return;
+            }
+            compiled.checks.add((value, pointer, errors) -> {
+                if (!(value instanceof List)) {
+                    return;
+                }
+                List<?> array = (List<?>) value;
+                if (minItems != null && array.size() < minItems) {
+                    errors.add(at(pointer) + "has " + array.size() + " items, fewer than " + minItems);
+                }
+                if (maxItems != null && array.size() > maxItems) {
+                    errors.add(at(pointer) + "has " + array.size() + " items, more than " + maxItems);
+                }
+                for (int i = 0; i < array.size(); i++) {
+                    JsonSchema schema = i < tupleSchemas.size() ? tupleSchemas.get(i) : itemSchema;
+                    if (schema != null) {
+                        schema.validate(array.get(i), pointer + "/" + i, errors);
+                    }
+                }
+                if (uniqueItems) {
+                    for (int i = 0; i < array.size(); i++) {
+                        for (int j = i + 1; j < array.size(); j++) {
+                            if (jsonEquals(array.get(i), array.get(j))) {
+                                errors.add(at(pointer) + "items " + i + " and " + j + " are equal");
+                                return;
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        private void addCombinators(JsonSchema compiled, Map<String, Object> keywords) {
+            List<JsonSchema> allOf = compileAll(keywords.get("allOf"));
+            for (JsonSchema schema : allOf) {
+                compiled.checks.add(schema::validate);
+            }
+            List<JsonSchema> anyOf = compileAll(keywords.get("anyOf"));
+            if (!anyOf.isEmpty()) {
+                compiled.checks.add((value, pointer, errors) -> {
+                    for (JsonSchema schema : anyOf) {
+                        if (schema.isValid(value, pointer)) {
+                            return;
+                        }
+                    }
+                    errors.add(at(pointer) + "does not match any schema of anyOf");
+                });
+            }
+            List<JsonSchema> oneOf = compileAll(keywords.get("oneOf"));
+            if (!oneOf.isEmpty()) {
+                compiled.checks.add((value, pointer, errors) -> {
+                    int matches = 0;
+                    for (JsonSchema schema : oneOf) {
+                        if (schema.isValid(value, pointer)) {
+                            matches++;
+                        }
+                    }
+                    if (matches != 1) {
+                        errors.add(at(pointer) + "matches " + matches + " schemas of oneOf instead of exactly one");
+                    }
+                });
+            }
+            if (keywords.containsKey("not")) {
+                JsonSchema not = compile(keywords.get("not"));
+                compiled.checks.add((value, pointer, errors) -> {
+                    if (not.isValid(value, pointer)) {
+                        errors.add(at(pointer) + "must not match the schema of not");
+                    }
+                });
+            }
+        }
+
+        private List<JsonSchema> compileAll(Object schemas) {
+            List<JsonSchema> compiled = new ArrayList<>();
+            if (schemas instanceof List) {
+                List<?> list = (List<?>) schemas;
+                for (int i = 0; i < list.size(); i++) {
+                    compiled.add(compile(list.get(i)));
+                }
+            }
+            return compiled;
+        }
+    }
+
+    private static boolean hasType(Object value, String type) {
+        switch (type) {
+            case "object":
+                return value instanceof Map;
+            case "array":
+                return value instanceof List;
+            case "string":
+                return value instanceof String;
+            case "boolean":
+                return value instanceof Boolean;
+            case "null":
+                return value == null;
+            case "number":
+                return value instanceof Number;
+            case "integer":
+                return value instanceof Number && isIntegral(decimal(value));
+            default:
+                throw new TestException.ConfigurationException("Unknown JSON Schema type: " + type);
+        }
+    }
+
+    private static String typeOf(Object value) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof Map) {
+            return "object";
+        } else if (value instanceof List) {
+            return "array";
+        } else if (value instanceof String) {
+            return "string";
+        } else if (value instanceof Boolean) {
+            return "boolean";
+        } else if (value instanceof Number) {
+            return isIntegral(decimal(value)) ? "integer" : "number";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private static boolean jsonEquals(Object expected, Object actual) {
+        if (expected instanceof Number && actual instanceof Number) {
+            return decimal(expected).compareTo(decimal(actual)) == 0;
+        }
+        return Objects.equals(expected, actual);
+    }
+
+    private static boolean isIntegral(BigDecimal value) {
+        return value.signum() == 0 || value.scale() <= 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    private static BigDecimal decimal(Object number) {
+        return new BigDecimal(number.toString());
+    }
+
+    private static Integer integer(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    private static String at(String pointer) {
+        return (pointer.isEmpty() ? "/" : pointer) + ": ";
+    }
+}
@@ -0,0 +1,83 @@
+package api.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A growable byte buffer taken from a shared pool, so rendering large request bodies reuses the
+ * arrays of earlier requests instead of allocating new ones. Its content is read in place
+ * through {@link #inputStream()} and {@link #preview(int)}; {@link #release()} returns it to the
+ * pool, after which it must not be used. A buffer that is never released is simply collected.
+ * Idle buffers in the pool hold at most 64 MB together.
+ */
+public class PooledBuffer extends ByteArrayOutputStream {
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    // Bounds the memory held by idle buffers, whatever their sizes
+    private static final long MAX_POOLED_BYTES = 64L * 1024 * 1024;
+    // Larger arrays are left to the garbage collector so one huge payload does not stay pinned
+    private static final int MAX_POOLED_CAPACITY = 16 * 1024 * 1024;
+    private static final Queue<PooledBuffer> pool = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong pooledBytes = new AtomicLong();
+
+    private boolean released;
+
+    private PooledBuffer() {
+        super(INITIAL_CAPACITY);
+    }
+
+    public static PooledBuffer acquire() {
+        PooledBuffer buffer = pool.poll();
+        if (buffer == null) {
+            return new PooledBuffer();
+        }
+        pooledBytes.addAndGet(-buffer.buf.length);
+        buffer.released = false;
+        return buffer;
+    }
+
+    /**
+     * Reads the current content without copying it; every call starts at the beginning.
+     */
+    public synchronized InputStream inputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    /**
+     * Decodes at most {@code maxBytes} bytes of the content as UTF-8, for logging.
+     */
+    public synchronized String preview(int maxBytes) {
+        if (count <= maxBytes) {
+            return new String(buf, 0, count, StandardCharsets.UTF_8);
+        }
+        return new String(buf, 0, maxBytes, StandardCharsets.UTF_8) + "... (" + count + " bytes)";
+    }
+
+    /**
+     * Feeds the current content to {@code digest} without copying it.
+     */
+    public synchronized void update(MessageDigest digest) {
+        digest.update(buf, 0, count);
+    }
+
+    public synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        reset();
+        if (buf.length > MAX_POOLED_CAPACITY) {
+            return;
+        }
+        if (pooledBytes.addAndGet(buf.length) <= MAX_POOLED_BYTES) {
+            pool.offer(this);
+        } else {
+            pooledBytes.addAndGet(-buf.length);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package api.util;
+
+import api.TestException;
+
+import java.util.*;
+
+/**
+ * A boolean tag filter such as {@code AddItem and positive and not (slow or flaky)}. Operators
+ * are {@code not}, {@code and} and {@code or} in that order of precedence, with parentheses for
+ * grouping; a comma means {@code and}, so the older {@code AddItem,positive} form still works.
+ * Tags may be written with or without the leading {@code @}; tags containing spaces are quoted,
+ * as in {@code 'smoke test' and not slow}. An empty expression matches every
+ * case.
+ */
+public abstract class TagExpression {
+    private static final String QUOTED = "\u0000";
+    private static final TagExpression ANY = new TagExpression() {
+        @Override
+        public boolean matches(Collection<String> tags) {
+            return true;
+        }
+
+        @Override
+        BitSet evaluate(TagIndex index) {
+            BitSet all = new BitSet(index.size());
+            all.set(0, index.size());
+            return all;
+        }
+
+        @Override
+        public String toString() {
+            return "";
+        }
+    };
+
+    /**
+     * Whether a case carrying {@code tags} is selected.
+     */
+    public abstract boolean matches(Collection<String> tags);
+
+    /**
+     * The positions in {@code index} of the selected cases.
+     */
+    abstract BitSet evaluate(TagIndex index);
+
+    public static TagExpression parse(String expression) {
+        List<String> tokens = tokenize(expression == null ? "" : expression);
+        if (tokens.isEmpty()) {
+            return ANY;
+        }
+        Parser parser = new Parser(expression, tokens);
+        TagExpression parsed = parser.parseOr();
+        if (parser.position < tokens.size()) {
+            throw parser.error("unexpected '" + tokens.get(parser.position) + "'");
+        }
+        return parsed;
+    }
+
+    public static String normalizeTag(String tag) {
+        String trimmed = tag.trim();
+        return trimmed.startsWith("@") ? trimmed.substring(1) : trimmed;
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        char quote = 0;
+        for (char c : expression.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    // Quoted tags are prefixed so they are never read as keywords or parentheses
+                    tokens.add(QUOTED + word);
+                    word.setLength(0);
+                    quote = 0;
+                } else {
+                    word.append(c);
+                }
+            } else if ((c == '\'' || c == '"') && word.length() == 0) {
+                quote = c;
+            } else if (Character.isWhitespace(c) || c == '(' || c == ')' || c == ',') {
+                if (word.length() > 0) {
+                    tokens.add(word.toString());
+                    word.setLength(0);
+                }
+                if (c == ',') {
+                    tokens.add("and");
+                } else if (!Character.isWhitespace(c)) {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                word.append(c);
+            }
+        }
+        if (quote != 0) {
+            throw new TestException.ConfigurationException("Invalid tag expression '" + expression + "': unclosed quote");
+        }
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+        }
+        return tokens;
+    }
+
+    private static class Parser {
+        private final String expression;
+        private final List<String> tokens;
+        private int position;
+
+        Parser(String expression, List<String> tokens) {
+            this.expression = expression;
+            this.tokens = tokens;
+        }
+
+        TagExpression parseOr() {
+            TagExpression left = parseAnd();
+            while (accept("or")) {
+                left = new Or(left, parseAnd());
+            }
+            return left;
+        }
+
+        TagExpression parseAnd() {
+            TagExpression left = parseNot();
+            while (accept("and")) {
+                left = new And(left, parseNot());
+            }
+            return left;
+        }
+
+        TagExpression parseNot() {
+            if (accept("not")) {
+                return new Not(parseNot());
+            }
+            if (accept("(")) {
+                TagExpression inner = parseOr();
+                if (!accept(")")) {
+                    throw error("missing ')'");
+                }
+                return inner;
+            }
+            if (position >= tokens.size()) {
+                throw error("unexpected end");
+            }
+            String token = tokens.get(position);
+            if (isKeyword(token) || token.equals(")")) {
+                throw error("expected a tag but found '" + token + "'");
+            }
+            position++;
+            return new Tag(normalizeTag(token.startsWith(QUOTED) ? token.substring(QUOTED.length()) : token));
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isKeyword(String token) {
+            return token.equalsIgnoreCase("and") || token.equalsIgnoreCase("or") || token.equalsIgnoreCase("not");
+        }
+
+        TestException error(String reason) {
+            return new TestException.ConfigurationException("Invalid tag expression '" + expression + "': " + reason);
+        }
+    }
+
+    private static class Tag extends TagExpression {
+        private final String tag;
+
+        Tag(String tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public boolean matches(Collection<String> tags) {
+            for (String candidate : tags) {
+                if (normalizeTag(candidate).equals(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        BitSet evaluate(TagIndex index) {
+            return (BitSet) index.getCasesWithTag(tag).clone();
+        }
+
+        @Override
+        public String toString() {
+            return tag;
+        }
+    }
+
+    private static class Not extends TagExpression {
+        private final TagExpression operand;
+
+        Not(TagExpression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean matches(Collection<String> tags) {
+            return !operand.matches(tags);
+        }
+
+        @Override
+        BitSet evaluate(TagIndex index) {
+            BitSet bits = operand.evaluate(index);
+            bits.flip(0, index.size());
+            return bits;
+        }
+
+        @Override
+        public String toString() {
+            return "not " + operand;
+        }
+    }
+
+    private static class And extends TagExpression {
+        private final TagExpression left;
+        private final TagExpression right;
+
+        And(TagExpression left, TagExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean matches(Collection<String> tags) {
+            return left.matches(tags) && right.matches(tags);
+        }
+
+        @Override
+        BitSet evaluate(TagIndex index) {
+            BitSet bits = left.evaluate(index);
+            bits.and(right.evaluate(index));
+            return bits;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " and " + right + ")";
+        }
+    }
+
+    private static class Or extends TagExpression {
+        private final TagExpression left;
+        private final TagExpression right;
+
+        Or(TagExpression left, TagExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean matches(Collection<String> tags) {
+            return left.matches(tags) || right.matches(tags);
+        }
+
+        @Override
+        BitSet evaluate(TagIndex index) {
+            BitSet bits = left.evaluate(index);
+            bits.or(right.evaluate(index));
+            return bits;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " or " + right + ")";
+        }
+    }
+}
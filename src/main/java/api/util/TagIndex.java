@@ -0,0 +1,57 @@
+package api.util;
+
+import api.model.APITestCase;
+
+import java.util.*;
+
+/**
+ * Inverted index from tag to the test cases carrying it, one {@link BitSet} per tag over the
+ * positions of a fixed case list. A {@link TagExpression} is evaluated with a few word-wise
+ * bitset operations per tag instead of checking every case, so selecting a subset of a large
+ * catalog costs about the same as iterating the result.
+ */
+public class TagIndex {
+    private final List<APITestCase> testCases;
+    private final Map<String, BitSet> casesByTag = new HashMap<>();
+
+    public TagIndex(List<APITestCase> testCases) {
+        this.testCases = Collections.unmodifiableList(new ArrayList<>(testCases));
+        for (int i = 0; i < this.testCases.size(); i++) {
+            List<String> tags = this.testCases.get(i).getTags();
+            if (tags == null) {
+                continue;
+            }
+            for (String tag : tags) {
+                String normalized = TagExpression.normalizeTag(tag);
+                if (!normalized.isEmpty()) {
+                    casesByTag.computeIfAbsent(normalized, k -> new BitSet()).set(i);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return testCases.size();
+    }
+
+    public Set<String> getTags() {
+        return Collections.unmodifiableSet(casesByTag.keySet());
+    }
+
+    /**
+     * The test cases selected by {@code expression}, in catalog order.
+     */
+    public List<APITestCase> select(TagExpression expression) {
+        BitSet selected = expression.evaluate(this);
+        List<APITestCase> result = new ArrayList<>(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            result.add(testCases.get(i));
+        }
+        return result;
+    }
+
+    BitSet getCasesWithTag(String tag) {
+        BitSet cases = casesByTag.get(tag);
+        return cases == null ? new BitSet() : cases;
+    }
+}
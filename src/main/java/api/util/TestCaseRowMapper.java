@@ -0,0 +1,114 @@
+package api.util;
+
+import api.model.APITestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Maps one row of a test case catalog to an {@link APITestCase}. Column names are matched
+ * ignoring case, spaces and underscores, so the Excel headers ({@code Endpoint Key}) and their
+ * camel case form ({@code endpointKey}) are both accepted. Values may be text with one entry per
+ * line, as in Excel, or lists and maps as produced by the YAML and JSON readers.
+ */
+public class TestCaseRowMapper {
+    private static final Logger logger = LoggerFactory.getLogger(TestCaseRowMapper.class);
+
+    public static APITestCase toTestCase(Map<String, ?> row) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, ?> entry : row.entrySet()) {
+            values.put(normalize(entry.getKey()), entry.getValue());
+        }
+
+        APITestCase testCase = new APITestCase();
+        testCase.setTCID(getText(values, "tcid"));
+        testCase.setName(getText(values, "name"));
+        testCase.setDescriptions(getText(values, "descriptions"));
+        testCase.setConditions(parseList(getText(values, "conditions")));
+        testCase.setEndpointKey(getText(values, "endpointkey"));
+        testCase.setHeadersTemplateKey(getText(values, "headerstemplatekey"));
+        testCase.setHeaderOverride(parseList(getText(values, "headeroverride")));
+        testCase.setBodyTemplateKey(getText(values, "bodytemplatekey"));
+        testCase.setBodyOverride(parseList(getText(values, "bodyoverride")));
+        String run = getText(values, "run");
+        testCase.setRun("Y".equalsIgnoreCase(run) || "true".equalsIgnoreCase(run));
+        testCase.setTags(parseList(getText(values, "tags")));
+        testCase.setExpStatus(parseInteger(getText(values, "expstatus")));
+        testCase.setExpResult(parseList(getText(values, "expresult")));
+        testCase.setSaveFields(parseList(getText(values, "savefields")));
+        testCase.setDynamicValidationTCID(getText(values, "dynamicvalidationtcid"));
+        testCase.setDynamicValidationExpectedChanges(parseMap(getText(values, "dynamicvalidationexpectedchanges")));
+        testCase.setQueryParams(parseList(getText(values, "queryparams")));
+        testCase.setPathParams(parseList(getText(values, "pathparams")));
+        testCase.setSchema(getText(values, "schema"));
+        testCase.setMaxResponseTime(getText(values, "maxresponsetime"));
+        // Compiled at load so executions only read the plan
+        testCase.getValidationPlan();
+        return testCase;
+    }
+
+    private static String normalize(String column) {
+        return column.replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String getText(Map<String, Object> values, String column) {
+        Object value = values.get(column);
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(String::valueOf).collect(Collectors.joining("\n"));
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).entrySet().stream()
+                    .map(entry -> entry.getKey() + ":" + entry.getValue())
+                    .collect(Collectors.joining("\n"));
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "Y" : "N";
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return String.valueOf(((Number) value).intValue());
+        }
+        return String.valueOf(value);
+    }
+
+    private static List<String> parseList(String value) {
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(value.split("\n"))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static int parseInteger(String value) {
+        if (value.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Failed to parse integer: {}", value);
+            return 0;
+        }
+    }
+
+    private static Map<String, String> parseMap(String value) {
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return Arrays.stream(value.split("\n"))
+                .map(pair -> pair.split(":"))
+                .filter(keyValue -> keyValue.length == 2)
+                .collect(Collectors.toMap(
+                        keyValue -> keyValue[0].trim(),
+                        keyValue -> keyValue[1].trim(),
+                        (v1, v2) -> v1,
+                        LinkedHashMap::new
+                ));
+    }
+}
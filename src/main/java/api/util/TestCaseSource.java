@@ -0,0 +1,19 @@
+package api.util;
+
+import api.model.APITestCase;
+
+import java.util.stream.Stream;
+
+/**
+ * A catalog of test cases. Implementations parse cases lazily while the stream is consumed, so
+ * a search for one TCID stops reading at the first match. Close the stream to release the file.
+ */
+public interface TestCaseSource {
+
+    Stream<APITestCase> stream();
+
+    /**
+     * The file the cases are read from, used in log messages and as cache key.
+     */
+    String getLocation();
+}
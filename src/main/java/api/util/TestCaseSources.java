@@ -0,0 +1,88 @@
+package api.util;
+
+import api.RunOptions;
+import api.model.APITestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Picks the {@link TestCaseSource} of a project: the file given with {@code -DtestCaseSource}
+ * (by extension: {@code .xlsx}, {@code .csv}, {@code .yaml}/{@code .yml} or {@code .jsonl}),
+ * otherwise the project's Excel workbook.
+ */
+public class TestCaseSources {
+    private static final Logger logger = LoggerFactory.getLogger(TestCaseSources.class);
+    private static final String SHEET_NAME = "API";
+
+    public static TestCaseSource forProject(String project) {
+        String configured = RunOptions.getTestCaseSource();
+        if (configured == null || configured.isEmpty()) {
+            return new ExcelTestCaseSource(ExcelTestCaseReader.getWorkbookPath(project), SHEET_NAME);
+        }
+        Path file = Paths.get(configured);
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new CsvTestCaseSource(file);
+        } else if (name.endsWith(".yaml") || name.endsWith(".yml")) {
+            return new YamlTestCaseSource(file);
+        } else if (name.endsWith(".jsonl")) {
+            return new JsonLinesTestCaseSource(file);
+        } else if (name.endsWith(".xlsx")) {
+            return new ExcelTestCaseSource(configured, SHEET_NAME);
+        }
+        throw new IllegalArgumentException("Unsupported test case source: " + configured);
+    }
+
+    static BufferedReader open(Path file) {
+        try {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open test case source: " + file, e);
+        }
+    }
+
+    /**
+     * Maps rows to test cases as the stream is consumed, skipping invalid rows like the Excel
+     * reader does. Closing the stream closes {@code resource}.
+     */
+    static Stream<APITestCase> toTestCases(Iterator<? extends Map<String, ?>> rows, Closeable resource, String location) {
+        AtomicInteger rowNumber = new AtomicInteger();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(row -> {
+                    rowNumber.incrementAndGet();
+                    return TestCaseRowMapper.toTestCase(row);
+                })
+                .filter(testCase -> {
+                    if (!testCase.isValid()) {
+                        logger.warn("Invalid test case at row {} of {}: {}", rowNumber.get(), location, testCase);
+                    }
+                    return testCase.isValid();
+                })
+                .onClose(() -> closeQuietly(resource));
+    }
+
+    static void closeQuietly(Closeable resource) {
+        try {
+            resource.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close test case source", e);
+        }
+    }
+}
@@ -1,17 +1,45 @@
 package api.util;
 
+import api.RunOptions;
 import com.github.javafaker.Faker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Expands {@code ${...}} variables with saved fields or generated data.
+ * <p>
+ * Every thread owns a {@link Faker} seeded from {@code -Dseed} and its thread name, so runs with
+ * the same seed and threads generate the same values. Without a seed, slow Faker values are taken
+ * from background-filled pools ({@code -DdataPoolSize}, 0 disables them); with one they are
+ * generated inline, because which thread gets which pooled value is a race. {@code ${sequence}},
+ * {@code ${uuid}} and {@code ${timeId}} ignore the seed. {@code ${sequence}} never collides
+ * between the shards or workers of a run, each of which counts in its own range; {@code ${timeId}}
+ * is unique within a JVM only.
+ */
 public class TestDataGenerator {
-    private static final Faker faker = new Faker(new Locale("en-US"));
+    private static final Logger logger = LoggerFactory.getLogger(TestDataGenerator.class);
+    private static final Locale LOCALE = new Locale("en-US");
     private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+    private static final boolean seeded = RunOptions.getSeed().isPresent();
+    private static final long seed = resolveSeed();
+    private static final ThreadLocal<Random> random = ThreadLocal.withInitial(
+            () -> new Random(seed ^ (Thread.currentThread().getName().hashCode() * 0x9E3779B97F4A7C15L)));
+    private static final ThreadLocal<Faker> faker = ThreadLocal.withInitial(() -> new Faker(LOCALE, random.get()));
+    private static final Map<String, GeneratedValuePool> pools = new ConcurrentHashMap<>();
 
     public static String generateDynamicData(String template, Map<String, String> savedFields) {
+        if (template == null || !template.contains("${")) {
+            return template;
+        }
         Matcher matcher = VARIABLE_PATTERN.matcher(template);
         StringBuffer result = new StringBuffer();
 
@@ -34,21 +62,45 @@ public class TestDataGenerator {
         // Generate dynamic data based on the variable name
         switch (variable) {
             case "env":
-                return faker.options().option("dev", "test", "prod");
+                return faker.get().options().option("dev", "test", "prod");
             case "status":
-                return faker.options().option("Active");
+                return faker.get().options().option("Active");
             case "randomName":
-                return faker.name().fullName();
+                return pooled("randomName", () -> faker.get().name().fullName());
             case "randomEmail":
-                return faker.internet().emailAddress();
+                return pooled("randomEmail", () -> faker.get().internet().emailAddress());
             case "randomNumber":
-                return String.valueOf(faker.number().numberBetween(1, 1000));
+                return String.valueOf(faker.get().number().numberBetween(1, 1000));
+            case "sequence":
+                return String.valueOf(UniqueIdGenerator.nextSequence());
+            case "uuid":
+                return UniqueIdGenerator.randomUUID(ThreadLocalRandom.current()).toString();
+            case "timeId":
+                return String.valueOf(UniqueIdGenerator.nextTimeBasedId());
             default:
                 return "${" + variable + "}";
         }
     }
 
+    private static String pooled(String name, Supplier<String> generator) {
+        int poolSize = RunOptions.getDataPoolSize();
+        if (poolSize <= 0 || seeded) {
+            return generator.get();
+        }
+        return pools.computeIfAbsent(name, key -> new GeneratedValuePool(key, poolSize, generator)).next();
+    }
+
     private static String getSavedFieldValue(String variable, Map<String, String> savedFields) {
         return savedFields.getOrDefault(variable, "${" + variable + "}");
     }
-}
\ No newline at end of file
+
+    private static long resolveSeed() {
+        long resolved = RunOptions.getSeed().orElseGet(() -> new Random().nextLong());
+        if (seeded || RunOptions.getDataPoolSize() <= 0) {
+            logger.info("Generating test data with seed {} (rerun with -Dseed={} to reproduce)", resolved, resolved);
+        } else {
+            logger.info("Generating test data with seed {} from pools; set -Dseed for reproducible data", resolved);
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,53 @@
+package api.util;
+
+import api.RunOptions;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free generators for values that must not collide between parallel requests.
+ */
+public class UniqueIdGenerator {
+    private static final AtomicLong sequence = new AtomicLong(RunOptions.getSequenceStart());
+    private static final AtomicLong lastTimeId = new AtomicLong();
+
+    private UniqueIdGenerator() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Returns 1, 2, 3, ... for the lifetime of the JVM, offset by {@code -DsequenceStart}.
+     */
+    public static long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Returns a strictly increasing id derived from the current time in microseconds, unique
+     * within the JVM and unlikely to repeat across runs.
+     */
+    public static long nextTimeBasedId() {
+        long now = System.currentTimeMillis() * 1000;
+        while (true) {
+            long last = lastTimeId.get();
+            long next = Math.max(now, last + 1);
+            if (lastTimeId.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Builds a version 4 UUID from the given random source instead of the shared
+     * {@link java.security.SecureRandom} used by {@link UUID#randomUUID()}. Pass an unseeded
+     * source such as {@link java.util.concurrent.ThreadLocalRandom}, or JVMs with the same seed
+     * produce the same UUIDs.
+     */
+    public static UUID randomUUID(Random random) {
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least);
+    }
+}
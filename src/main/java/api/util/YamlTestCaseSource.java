@@ -0,0 +1,71 @@
+package api.util;
+
+import api.model.APITestCase;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.BufferedReader;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Reads test cases from a YAML file. Each case may be its own document (separated by
+ * {@code ---}), which is parsed only when reached, or documents may hold a list of cases:
+ * <pre>
+ * TCID: Summary01
+ * Endpoint Key: summary
+ * Exp Status: 200
+ * Tags: [smoke test, api test]
+ * ---
+ * TCID: Filters01
+ * ...
+ * </pre>
+ */
+public class YamlTestCaseSource implements TestCaseSource {
+    private final Path file;
+
+    public YamlTestCaseSource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Stream<APITestCase> stream() {
+        BufferedReader reader = TestCaseSources.open(file);
+        Iterator<Object> documents = new Yaml().loadAll(reader).iterator();
+        Iterator<Map<String, Object>> rows = new Iterator<Map<String, Object>>() {
+            private Iterator<?> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && documents.hasNext()) {
+                    Object document = documents.next();
+                    if (document instanceof List) {
+                        current = ((List<?>) document).iterator();
+                    } else if (document != null) {
+                        current = Collections.singletonList(document).iterator();
+                    }
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Map<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object row = current.next();
+                if (!(row instanceof Map)) {
+                    throw new IllegalArgumentException("Expected a test case mapping in " + file + " but found: " + row);
+                }
+                return (Map<String, Object>) row;
+            }
+        };
+        return TestCaseSources.toTestCases(rows, reader, getLocation());
+    }
+
+    @Override
+    public String getLocation() {
+        return file.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PerformanceBaselineTest {
+
+    @Test
+    void slowerCurrentRunHasASmallPValue() {
+        // U = 9 of at most 9, z = (9 - 4.5 - 0.5) / sqrt(5.25)
+        assertThat(PerformanceBaseline.mannWhitneyGreater(new long[]{4, 5, 6}, new long[]{1, 2, 3}))
+                .isCloseTo(0.040428, within(1e-5));
+        assertThat(PerformanceBaseline.mannWhitneyGreater(
+                new long[]{10, 11, 12, 13, 14, 15, 16, 17}, new long[]{1, 2, 3, 4, 5, 6, 7, 8}))
+                .isCloseTo(0.000470, within(1e-5));
+    }
+
+    @Test
+    void fasterCurrentRunHasALargePValue() {
+        assertThat(PerformanceBaseline.mannWhitneyGreater(new long[]{1, 2, 3}, new long[]{4, 5, 6}))
+                .isCloseTo(0.985452, within(1e-5));
+    }
+
+    @Test
+    void tiesGetAverageRanksAndShrinkTheVariance() {
+        // Ranks 3 for the 2s and 6 for the 3s give U = 13; the ties cut the variance to 10.857
+        assertThat(PerformanceBaseline.mannWhitneyGreater(new long[]{2, 3, 3, 4}, new long[]{1, 2, 2, 3}))
+                .isCloseTo(0.086017, within(1e-5));
+    }
+
+    @Test
+    void identicalSamplesAreNeverARegression() {
+        assertThat(PerformanceBaseline.mannWhitneyGreater(new long[]{5, 5, 5}, new long[]{5, 5, 5, 5})).isEqualTo(1.0);
+    }
+}
@@ -1,6 +1,11 @@
 package api.StepDefinitions;
 
+import api.LiveDashboard;
+import api.RequestPipeline;
+import api.TestResultRecorder;
 import api.StepDetails.APISteps;
+import api.model.TestContext;
+import api.model.TestResult;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
@@ -17,6 +22,9 @@ public class Hooks {
     @Before
     public void beforeScenario(Scenario scenario) {
         logger.info("Starting scenario: {}", scenario.getName());
+        LiveDashboard.startIfEnabled();
+        TestResultRecorder.open();
+        TestContext.getInstance().startScenario(scenario.getName());
     }
 
     @After
@@ -28,5 +36,24 @@ public class Hooks {
         } catch (Exception e) {
             logger.error("Error during tearDown execution", e);
         }
+        try {
+            apiSteps.recordTestResult(toResultStatus(scenario));
+        } finally {
+            RequestPipeline.clear();
+            TestContext.getInstance().endScenario();
+        }
+    }
+
+    private TestResult.Status toResultStatus(Scenario scenario) {
+        switch (scenario.getStatus()) {
+            case PASSED:
+                return TestResult.Status.PASSED;
+            case FAILED:
+            case UNDEFINED:
+            case AMBIGUOUS:
+                return TestResult.Status.FAILED;
+            default:
+                return TestResult.Status.SKIPPED;
+        }
     }
 }
\ No newline at end of file
@@ -4,26 +4,41 @@ import api.*;
 import api.APIConfigManager;
 import api.model.APITestCase;
 import api.model.APIResponse;
+import api.model.TestResult;
+import api.util.TagExpression;
 import net.serenitybdd.annotations.Step;
+import org.opentest4j.TestAbortedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.List;
+
 public class APISteps {
     private static final Logger logger = LoggerFactory.getLogger(APISteps.class);
+    // -Dtags does not change during a run, so every scenario shares one parsed expression
+    private static TagExpression selectedTags;
     private final APIConfigManager apiConfigManager;
     private final APITestExecutionManager apiTestExecutionManager;
     private final APIResponseValidator apiResponseValidator;
     private final TestTearDownManager testTeardownManager;
+    private final TestShardManager testShardManager;
+    private final TestResultRecorder testResultRecorder;
 
     private APIResponse APIResponse;
     private APITestCase currentTestCase;
     private String currentTCID;
+    private long startTime;
+    private Throwable failure;
+    private boolean skipped;
 
     public APISteps() {
         this.apiConfigManager = APIConfigManager.getInstance();
         this.apiTestExecutionManager = new APITestExecutionManager();
         this.apiResponseValidator = new APIResponseValidator();
         this.testTeardownManager = new TestTearDownManager();
+        this.testShardManager = new TestShardManager();
+        this.testResultRecorder = new TestResultRecorder();
     }
 
     @Step("Set the environment to {0}")
@@ -40,14 +55,35 @@ public class APISteps {
 
     @Step("Load test case for {0}")
     public void loadTestCase(String tcid) {
+        startTime = System.currentTimeMillis();
+        if (!testShardManager.isInCurrentShard(tcid)) {
+            skipped = true;
+            throw new TestAbortedException("TCID " + tcid + " is not part of shard " + RunOptions.getShardIndex() + "/" + RunOptions.getShardCount());
+        }
+        if (!IncrementalRunManager.getInstance().isSelected(tcid)) {
+            skipped = true;
+            throw new TestAbortedException("TCID " + tcid + " is unchanged and passed in the previous run");
+        }
         currentTestCase = apiTestExecutionManager.loadTestCase(tcid);
+        List<String> tags = currentTestCase.getTags() == null ? Collections.<String>emptyList() : currentTestCase.getTags();
+        if (!getSelectedTags().matches(tags)) {
+            skipped = true;
+            throw new TestAbortedException("TCID " + tcid + " does not match -Dtags=" + RunOptions.getTags());
+        }
         logger.info("Loaded test case for TCID: {}", tcid);
         currentTCID = currentTestCase.getTCID();
+        // Only cases that get this far record a result and so finish again
+        LiveMetrics.caseStarted();
 
     }
 
     @Step("Execute API request")
     public void executeAPIRequest() {
+        recordFailure(this::runAPIRequest);
+    }
+
+    private void runAPIRequest() {
+        apiTestExecutionManager.prefetchRequests(currentTestCase);
         logger.info("******************************** Executing Setup Request **********************************");
         logger.info("Executing setup test cases for TCID: {}", currentTCID);
         apiTestExecutionManager.executeSetupTestCases(currentTestCase);
@@ -70,13 +106,13 @@ public class APISteps {
     public void verifyAPIResponse() {
         logger.info("******************************** Executing Verifying Response*******************************");
         logger.info("Verifying response for TCID: {}", currentTCID);
-        apiResponseValidator.verifyResponse(currentTestCase, APIResponse);
+        recordFailure(() -> apiResponseValidator.verifyResponse(currentTestCase, APIResponse));
     }
 
     @Step("Store response values")
     public void storeResponseValues() {
         logger.info("Storing response values for TCID: {}", currentTCID);
-        apiTestExecutionManager.storeResponseValues(currentTestCase, APIResponse);
+        recordFailure(() -> apiTestExecutionManager.storeResponseValues(currentTestCase, APIResponse));
     }
 
     public void executeTearDownTestCases() {
@@ -84,4 +120,43 @@ public class APISteps {
         logger.info("Executing Tear Down test cases");
         testTeardownManager.executeTearDownTestCases();
     }
-}
\ No newline at end of file
+
+    public void recordTestResult(TestResult.Status status) {
+        if (skipped || currentTestCase == null) {
+            return;
+        }
+        TestResult result = new TestResult();
+        result.setTCID(currentTCID);
+        result.setName(currentTestCase.getName());
+        result.setEndpointKey(currentTestCase.getEndpointKey());
+        result.setStatus(status);
+        result.setDurationMs(System.currentTimeMillis() - startTime);
+        if (APIResponse != null) {
+            result.setStatusCode(APIResponse.getStatusCode());
+            result.setResponseTimeMs(APIResponse.getResponseTime());
+            result.setRequestFingerprint(APIResponse.getRequestFingerprint());
+            result.setShared(APIResponse.isShared());
+            result.setValidationTimeMs(APIResponse.getValidationTimeMs());
+        }
+        if (failure != null) {
+            result.setMessage(String.valueOf(failure.getMessage()));
+        }
+        testResultRecorder.record(result);
+    }
+
+    private static synchronized TagExpression getSelectedTags() {
+        if (selectedTags == null) {
+            selectedTags = TagExpression.parse(RunOptions.getTags());
+        }
+        return selectedTags;
+    }
+
+    private void recordFailure(Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException | AssertionError e) {
+            failure = e;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package api;
+
+import api.model.APITestCase;
+import api.model.TestCaseGroup;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestShardManagerTest {
+    private final TestShardManager testShardManager = new TestShardManager();
+
+    @Test
+    void groupsCasesLinkedBySetupAndTearDown() {
+        List<TestCaseGroup> groups = testShardManager.buildDependencyGroups(Arrays.asList(
+                testCase("Delete01", "[TestSetup]Add01"),
+                testCase("Summary01"),
+                testCase("Add01"),
+                testCase("Update01", "[TestTearDown]Delete01")));
+
+        assertThat(groups).extracting(TestCaseGroup::getGroupId).containsExactly("Add01", "Summary01");
+        assertThat(groups.get(0).getTCIDs()).containsExactly("Add01", "Delete01", "Update01");
+        assertThat(groups.get(1).getTCIDs()).containsExactly("Summary01");
+    }
+
+    @Test
+    void groupsDoNotDependOnInputOrder() {
+        List<APITestCase> testCases = new ArrayList<>(Arrays.asList(
+                testCase("B01", "[TestSetup]C01"),
+                testCase("A01", "[TestSetup]C01,D01"),
+                testCase("C01"),
+                testCase("D01"),
+                testCase("E01")));
+        List<String> expected = describe(testShardManager.buildDependencyGroups(testCases));
+
+        Collections.reverse(testCases);
+
+        assertThat(describe(testShardManager.buildDependencyGroups(testCases))).isEqualTo(expected);
+        assertThat(expected).containsExactly("A01=[A01, B01, C01, D01]", "E01=[E01]");
+    }
+
+    @Test
+    void everyGroupLandsInExactlyOneShard() {
+        List<APITestCase> testCases = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            testCases.add(testCase(String.format("Case%02d", i)));
+        }
+        List<TestCaseGroup> groups = testShardManager.buildDependencyGroups(testCases);
+
+        Set<String> assigned = new HashSet<>();
+        int total = 0;
+        for (int shardIndex = 0; shardIndex < 4; shardIndex++) {
+            for (TestCaseGroup group : testShardManager.getShard(groups, shardIndex, 4)) {
+                assigned.add(group.getGroupId());
+                total++;
+            }
+        }
+
+        assertThat(total).isEqualTo(groups.size());
+        assertThat(assigned).hasSize(groups.size());
+    }
+
+    @Test
+    void shardAssignmentIsStable() {
+        List<TestCaseGroup> groups = testShardManager.buildDependencyGroups(Arrays.asList(
+                testCase("Add01"), testCase("Delete01", "[TestSetup]Add01"), testCase("Summary01"),
+                testCase("Filters01"), testCase("Login01"), testCase("Search01")));
+
+        // Math.floorMod(groupId.hashCode(), 3) of each group id
+        assertThat(describe(testShardManager.getShard(groups, 0, 3))).containsExactly("Filters01=[Filters01]");
+        assertThat(describe(testShardManager.getShard(groups, 1, 3))).containsExactly("Login01=[Login01]", "Search01=[Search01]");
+        assertThat(describe(testShardManager.getShard(groups, 2, 3)))
+                .containsExactly("Add01=[Add01, Delete01]", "Summary01=[Summary01]");
+        assertThat(testShardManager.getShard(groups, 0, 1)).containsExactlyElementsOf(groups);
+    }
+
+    @Test
+    void shardsPartitionTheGroups() {
+        List<TestCaseGroup> groups = testShardManager.buildDependencyGroups(Arrays.asList(
+                testCase("Add01"), testCase("Delete01", "[TestSetup]Add01"), testCase("Summary01"),
+                testCase("Filters01"), testCase("Login01"), testCase("Search01")));
+
+        List<TestCaseGroup> union = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < 3; shardIndex++) {
+            union.addAll(testShardManager.getShard(groups, shardIndex, 3));
+        }
+
+        assertThat(union).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(groups);
+    }
+
+    @Test
+    void rejectsShardIndexOutOfRange() {
+        List<TestCaseGroup> groups = Collections.emptyList();
+
+        assertThatThrownBy(() -> testShardManager.getShard(groups, 2, 2))
+                .isInstanceOf(TestException.ConfigurationException.class)
+                .hasMessageContaining("between 0 and 1");
+        assertThatThrownBy(() -> testShardManager.getShard(groups, 0, 0))
+                .isInstanceOf(TestException.ConfigurationException.class);
+    }
+
+    private static APITestCase testCase(String tcid, String... conditions) {
+        APITestCase testCase = new APITestCase();
+        testCase.setTCID(tcid);
+        testCase.setConditions(Arrays.asList(conditions));
+        return testCase;
+    }
+
+    private static List<String> describe(List<TestCaseGroup> groups) {
+        List<String> described = new ArrayList<>();
+        for (TestCaseGroup group : groups) {
+            described.add(group.getGroupId() + "=" + group.getTCIDs());
+        }
+        return described;
+    }
+}
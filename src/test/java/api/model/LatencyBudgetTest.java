@@ -0,0 +1,82 @@
+package api.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class LatencyBudgetTest {
+
+    @Test
+    void parsesLimitsAndRuns() {
+        LatencyBudget budget = LatencyBudget.parse("800ms, p95<=300ms\nruns=20");
+
+        assertThat(budget.getLimits()).containsExactly(entry(95.0, 300L), entry(100.0, 800L));
+        assertThat(budget.getRuns()).isEqualTo(20);
+        assertThat(budget.isEmpty()).isFalse();
+    }
+
+    @Test
+    void acceptsSecondsFractionalPercentilesAndOtherSeparators() {
+        assertThat(LatencyBudget.parse("2s").getLimits()).containsExactly(entry(100.0, 2000L));
+        assertThat(LatencyBudget.parse("max<=2s").getLimits()).containsExactly(entry(100.0, 2000L));
+        assertThat(LatencyBudget.parse("p99.9<=1s").getLimits()).containsExactly(entry(99.9, 1000L));
+        assertThat(LatencyBudget.parse(" P50 : 120 , p90=200ms ").getLimits())
+                .containsExactly(entry(50.0, 120L), entry(90.0, 200L));
+    }
+
+    @Test
+    void runsDefaultToOneAndAreAtLeastOne() {
+        assertThat(LatencyBudget.parse("500ms").getRuns()).isEqualTo(1);
+        assertThat(LatencyBudget.parse("runs=0").getRuns()).isEqualTo(1);
+        assertThat(LatencyBudget.parse("runs=0").isEmpty()).isTrue();
+        assertThat(LatencyBudget.parse(" ,\n").isEmpty()).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidEntries() {
+        assertThatThrownBy(() -> LatencyBudget.parse("800ms, fast"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid response time limit: fast");
+        assertThatThrownBy(() -> LatencyBudget.parse("p95<300ms")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyBudget.parse("p100<=1s")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyBudget.parse("2m")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void percentilesUseNearestRank() {
+        long[] sorted = LatencyBudget.sort(samples(10));
+
+        assertThat(LatencyBudget.percentile(sorted, 50)).isEqualTo(5);
+        assertThat(LatencyBudget.percentile(sorted, 51)).isEqualTo(6);
+        assertThat(LatencyBudget.percentile(sorted, 95)).isEqualTo(10);
+        assertThat(LatencyBudget.percentile(sorted, 0)).isEqualTo(1);
+        assertThat(LatencyBudget.percentile(sorted, 100)).isEqualTo(10);
+        assertThat(LatencyBudget.percentile(LatencyBudget.sort(samples(20)), 95)).isEqualTo(19);
+        assertThat(LatencyBudget.percentile(new long[0], 95)).isZero();
+    }
+
+    @Test
+    void reportsEveryExceededLimit() {
+        LatencyBudget budget = LatencyBudget.parse("p50<=5ms, p99.9<=9ms");
+        List<Long> samples = new ArrayList<>(Arrays.asList(10L, 3L, 7L, 1L, 9L, 2L, 8L, 4L, 6L, 5L));
+
+        assertThat(budget.findViolations(samples)).containsExactly(
+                "p99.9 response time 10 ms exceeds 9 ms (n=10 min=1 p50=5 p90=9 p95=10 p99=10 max=10 ms)");
+        assertThat(LatencyBudget.parse("p90<=9ms").findViolations(samples)).isEmpty();
+        assertThat(LatencyBudget.describe(new ArrayList<>())).isEqualTo("n=0");
+    }
+
+    private static List<Long> samples(int count) {
+        List<Long> samples = new ArrayList<>();
+        for (long i = count; i >= 1; i--) {
+            samples.add(i);
+        }
+        return samples;
+    }
+}
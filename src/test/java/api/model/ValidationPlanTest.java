@@ -0,0 +1,100 @@
+package api.model;
+
+import api.model.ValidationPlan.DynamicExpectation;
+import api.model.ValidationPlan.DynamicExpectation.Operator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationPlanTest {
+
+    @Test
+    void splitsOwnFieldChecksFromDynamicExpectations() {
+        ValidationPlan plan = ValidationPlan.compile("AddItem01", Arrays.asList(
+                "AddItem01.item.amount=100",
+                "status: created",
+                "Summary01.totalAmount=+100",
+                "Summary01.count=-1",
+                "Inventory01.state=open"), null);
+
+        assertThat(plan.getFieldChecks()).extracting(ValidationPlan.FieldCheck::getKey)
+                .containsExactly("AddItem01.item.amount", "status");
+        assertThat(plan.getFieldChecks().get(0).getPath()).isEqualTo("item.amount");
+        assertThat(plan.getFieldChecks().get(0).getExpected()).isEqualTo("100");
+        assertThat(plan.getFieldChecks().get(1).getPath()).isEqualTo("status");
+        assertThat(plan.getValidationTCIDs()).containsExactly("Summary01", "Inventory01");
+        assertThat(plan.getDynamicExpectations().get("Summary01")).extracting(DynamicExpectation::getPath)
+                .containsExactly("totalAmount", "count");
+    }
+
+    @Test
+    void parsesDeltasAndTimeouts() {
+        ValidationPlan plan = ValidationPlan.compile("AddItem01", Arrays.asList(
+                "Summary01.totalAmount=+100.5 within 10s",
+                "Summary01.count=-1 within 250ms",
+                "Summary01.state=closed",
+                "Summary01.code=-abc"), null);
+
+        List<DynamicExpectation> expectations = plan.getDynamicExpectations().get("Summary01");
+        DynamicExpectation increase = expectations.get(0);
+        assertThat(increase.getOperator()).isEqualTo(Operator.INCREASE);
+        assertThat(increase.getDelta()).isEqualByComparingTo(new BigDecimal("100.5"));
+        assertThat(increase.getExpected()).isEqualTo("+100.5");
+        assertThat(increase.getWithinMillis()).isEqualTo(10000);
+
+        DynamicExpectation decrease = expectations.get(1);
+        assertThat(decrease.getOperator()).isEqualTo(Operator.DECREASE);
+        assertThat(decrease.getDelta()).isEqualByComparingTo(BigDecimal.ONE);
+        assertThat(decrease.getWithinMillis()).isEqualTo(250);
+
+        assertThat(expectations.get(2).getOperator()).isEqualTo(Operator.EQUALS);
+        assertThat(expectations.get(2).getWithinMillis()).isZero();
+        // Not a number, so compared as text
+        assertThat(expectations.get(3).getOperator()).isEqualTo(Operator.EQUALS);
+        assertThat(expectations.get(3).getExpected()).isEqualTo("-abc");
+    }
+
+    @Test
+    void laterEntriesForTheSameKeyWin() {
+        ValidationPlan plan = ValidationPlan.compile("AddItem01", Arrays.asList(
+                "AddItem01.status=draft",
+                "AddItem01.name=item",
+                "AddItem01.status=active"), null);
+
+        assertThat(plan.getFieldChecks()).extracting(ValidationPlan.FieldCheck::getKey)
+                .containsExactly("AddItem01.name", "AddItem01.status");
+        assertThat(plan.getFieldChecks().get(1).getExpected()).isEqualTo("active");
+    }
+
+    @Test
+    void ignoresEntriesWithoutSeparator() {
+        ValidationPlan plan = ValidationPlan.compile("AddItem01", Arrays.asList("no separator", "AddItem01.id=1"), null);
+
+        assertThat(plan.getFieldChecks()).extracting(ValidationPlan.FieldCheck::getKey).containsExactly("AddItem01.id");
+    }
+
+    @Test
+    void keepsNestedSaveFieldPaths() {
+        ValidationPlan plan = ValidationPlan.compile("AddItem01", null,
+                Arrays.asList("AddItem01.item.id", "AddItem01.item.owner.name"));
+
+        assertThat(plan.getFieldChecks()).isEmpty();
+        assertThat(plan.getSaveFields()).extracting(ValidationPlan.SaveField::getPath)
+                .containsExactly("item.id", "item.owner.name");
+        assertThat(plan.getSaveFields().get(0).getKey()).isEqualTo("AddItem01.item.id");
+    }
+
+    @Test
+    void emptyInputGivesAnEmptyPlan() {
+        ValidationPlan plan = ValidationPlan.compile("AddItem01", Collections.emptyList(), Collections.emptyList());
+
+        assertThat(plan.getFieldChecks()).isEmpty();
+        assertThat(plan.getDynamicExpectations()).isEmpty();
+        assertThat(plan.getSaveFields()).isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package api.util;
+
+import api.model.APITestCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvTestCaseSourceTest {
+    private static final String HEADER = "TCID,Name,Endpoint Key,Run,Tags,Exp Status,Exp Result\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        List<APITestCase> testCases = read(HEADER
+                + "Summary01,Summary,summary,Y,smoke,200,Summary01.count=10\n"
+                + "Filters01,Filters,get_data,N,,200,\n");
+
+        assertThat(testCases).extracting(APITestCase::getTCID).containsExactly("Summary01", "Filters01");
+        APITestCase summary = testCases.get(0);
+        assertThat(summary.getEndpointKey()).isEqualTo("summary");
+        assertThat(summary.isRun()).isTrue();
+        assertThat(summary.getTags()).containsExactly("smoke");
+        assertThat(summary.getExpStatus()).isEqualTo(200);
+        assertThat(summary.getExpResult()).containsExactly("Summary01.count=10");
+        assertThat(testCases.get(1).isRun()).isFalse();
+    }
+
+    @Test
+    void readsQuotedFieldsWithCommasLineBreaksAndQuotes() throws IOException {
+        List<APITestCase> testCases = read(HEADER
+                + "Add01,\"Add, then check\",add_item,Y,\"smoke test\napi test\",201,\"Add01.name=\"\"x\"\"\"\r\n");
+
+        APITestCase testCase = testCases.get(0);
+        assertThat(testCase.getName()).isEqualTo("Add, then check");
+        assertThat(testCase.getTags()).containsExactly("smoke test", "api test");
+        assertThat(testCase.getExpResult()).containsExactly("Add01.name=\"x\"");
+    }
+
+    @Test
+    void skipsBlankLinesAndInvalidRows() throws IOException {
+        List<APITestCase> testCases = read(HEADER
+                + "\n"
+                + "Summary01,Summary,summary,Y,,200,\n"
+                + "\r\n"
+                + "Broken01,,summary,Y,,200,\n"
+                + "Short01,Short,summary\n");
+
+        assertThat(testCases).extracting(APITestCase::getTCID).containsExactly("Summary01");
+    }
+
+    @Test
+    void emptyFileHasNoCases() throws IOException {
+        assertThat(read("")).isEmpty();
+    }
+
+    private List<APITestCase> read(String content) throws IOException {
+        Path file = directory.resolve("cases.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        try (Stream<APITestCase> testCases = new CsvTestCaseSource(file).stream()) {
+            return testCases.collect(Collectors.toList());
+        }
+    }
+}
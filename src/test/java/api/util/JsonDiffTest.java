@@ -0,0 +1,97 @@
+package api.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonDiffTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void equalDocumentsHaveNoDifferences() {
+        JsonDiff jsonDiff = new JsonDiff(Collections.emptyList());
+
+        assertThat(jsonDiff.diff(json("{'a':1,'b':{'c':[1,2]}}"), json("{'b':{'c':[1.0,2]},'a':1.00}"))).isEmpty();
+        assertThat(jsonDiff.diff(null, null)).isEmpty();
+    }
+
+    @Test
+    void reportsDifferencesWithTheirPath() {
+        JsonDiff jsonDiff = new JsonDiff(Collections.emptyList());
+
+        List<String> differences = jsonDiff.diff(
+                json("{'id':1,'item':{'name':'a','tags':['x','y']},'left':true}"),
+                json("{'id':2,'item':{'name':'b','tags':['x','z','w']},'right':null}"));
+
+        assertThat(differences).containsExactly(
+                "id: 1 != 2",
+                "item.name: \"a\" != \"b\"",
+                "item.tags: array length 2 != 3",
+                "item.tags.1: \"y\" != \"z\"",
+                "left: only on the left: true",
+                "right: only on the right: null");
+    }
+
+    @Test
+    void reportsTypeChangesAndRootDifferences() {
+        JsonDiff jsonDiff = new JsonDiff(Collections.emptyList());
+
+        assertThat(jsonDiff.diff(json("{'a':{'b':1}}"), json("{'a':[1]}"))).containsExactly("a: object != array");
+        assertThat(jsonDiff.diff(json("{'a':'1'}"), json("{'a':1}"))).containsExactly("a: \"1\" != 1");
+        assertThat(jsonDiff.diff("plain text", "other text")).containsExactly("(root): \"plain text\" != \"other text\"");
+    }
+
+    @Test
+    void ignoresFieldNamesAtAnyDepthAndWildcardPaths() {
+        JsonDiff jsonDiff = new JsonDiff(Arrays.asList("timestamp", " data.*.createdAt ", ""));
+
+        List<String> differences = jsonDiff.diff(
+                json("{'timestamp':1,'meta':{'timestamp':2},'data':[{'createdAt':1,'id':1},{'createdAt':3,'id':2}],'createdAt':5}"),
+                json("{'timestamp':9,'meta':{'timestamp':8},'data':[{'createdAt':2,'id':1},{'createdAt':4,'id':3}],'createdAt':6}"));
+
+        assertThat(differences).containsExactly("createdAt: 5 != 6", "data.1.id: 2 != 3");
+    }
+
+    @Test
+    void ignoredFieldsMayBeMissingOnEitherSide() {
+        JsonDiff jsonDiff = new JsonDiff(Arrays.asList("traceId", "data.*.createdAt"));
+
+        List<String> differences = jsonDiff.diff(
+                json("{'traceId':'t1','meta':{'traceId':'t2'},'data':[{'createdAt':1,'id':1}],'left':1}"),
+                json("{'meta':{},'data':[{'id':1}],'right':2}"));
+
+        assertThat(differences).containsExactly("left: only on the left: 1", "right: only on the right: 2");
+    }
+
+    @Test
+    void stopsAtFiftyDifferences() {
+        StringBuilder left = new StringBuilder("[");
+        StringBuilder right = new StringBuilder("[");
+        for (int i = 0; i < 80; i++) {
+            left.append(i == 0 ? "" : ",").append(i);
+            right.append(i == 0 ? "" : ",").append(i + 1);
+        }
+
+        List<String> differences = new JsonDiff(Collections.emptyList())
+                .diff(json(left.append("]").toString()), json(right.append("]").toString()));
+
+        assertThat(differences).hasSize(50);
+        assertThat(differences.get(0)).isEqualTo("0: 0 != 1");
+    }
+
+    // Single quotes keep the JSON in these tests readable
+    private static Object json(String json) {
+        try {
+            return objectMapper.readValue(json.replace('\'', '"'), Object.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package api.util;
+
+import api.model.APITestCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonLinesTestCaseSourceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsOneCasePerLine() throws IOException {
+        List<APITestCase> testCases = read(
+                "{\"TCID\":\"Summary01\",\"Name\":\"Summary\",\"Endpoint Key\":\"summary\",\"Run\":\"Y\","
+                        + "\"Exp Status\":200,\"Tags\":[\"smoke test\",\"@api\"],\"Exp Result\":\"Summary01.count=10\\nSummary01.total=3\"}\n"
+                        + "\n"
+                        + "{\"tcid\":\"Filters01\",\"name\":\"Filters\",\"endpoint_key\":\"get_data\",\"run\":false,\"expStatus\":200.0}\n");
+
+        assertThat(testCases).extracting(APITestCase::getTCID).containsExactly("Summary01", "Filters01");
+        APITestCase summary = testCases.get(0);
+        assertThat(summary.getTags()).containsExactly("smoke test", "@api");
+        assertThat(summary.getExpResult()).containsExactly("Summary01.count=10", "Summary01.total=3");
+        assertThat(summary.getExpStatus()).isEqualTo(200);
+        APITestCase filters = testCases.get(1);
+        assertThat(filters.getEndpointKey()).isEqualTo("get_data");
+        assertThat(filters.isRun()).isFalse();
+        assertThat(filters.getExpStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void skipsInvalidCases() throws IOException {
+        List<APITestCase> testCases = read(
+                "{\"TCID\":\"Summary01\",\"Name\":\"Summary\",\"Endpoint Key\":\"summary\",\"Exp Status\":200}\n"
+                        + "{\"TCID\":\"NoEndpoint01\",\"Name\":\"No endpoint\",\"Exp Status\":200}\n");
+
+        assertThat(testCases).extracting(APITestCase::getTCID).containsExactly("Summary01");
+    }
+
+    @Test
+    void reportsTheMalformedLine() throws IOException {
+        assertThatThrownBy(() -> read("{\"TCID\":\"Summary01\"\n"))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("{\"TCID\":\"Summary01\"");
+    }
+
+    private List<APITestCase> read(String content) throws IOException {
+        Path file = directory.resolve("cases.jsonl");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        try (Stream<APITestCase> testCases = new JsonLinesTestCaseSource(file).stream()) {
+            return testCases.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package api.util;
+
+import api.TestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonSchemaTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void acceptsAValidDocument() {
+        JsonSchema schema = schema("{'type':'object','required':['id','tags'],'properties':{"
+                + "'id':{'type':'integer','minimum':1},"
+                + "'name':{'type':['string','null'],'maxLength':5},"
+                + "'tags':{'type':'array','items':{'type':'string'},'uniqueItems':true}}}");
+
+        assertThat(schema.validate(json("{'id':1,'name':null,'tags':['a','b']}"))).isEmpty();
+        assertThat(schema.validate(json("{'id':2.0,'name':'abcde','tags':[]}"))).isEmpty();
+    }
+
+    @Test
+    void reportsViolationsWithTheirPointer() {
+        JsonSchema schema = schema("{'type':'object','required':['id','tags'],'properties':{"
+                + "'id':{'type':'integer','minimum':1},"
+                + "'tags':{'type':'array','items':{'type':'string'},'uniqueItems':true}}}");
+
+        List<String> errors = schema.validate(json("{'id':0.5,'tags':['a',1,'a']}"));
+
+        assertThat(errors).containsExactly(
+                "/id: expected type integer but was number",
+                "/id: 0.5 violates minimum 1",
+                "/tags/1: expected type string but was integer",
+                "/tags: items 0 and 2 are equal");
+        assertThat(schema.validate(json("{}"))).containsExactly(
+                "/: missing required property 'id'",
+                "/: missing required property 'tags'");
+    }
+
+    @Test
+    void checksStringsAndNumbers() {
+        JsonSchema schema = schema("{'properties':{"
+                + "'code':{'pattern':'^[A-Z]{3}$','minLength':3},"
+                + "'price':{'exclusiveMinimum':0,'maximum':10,'multipleOf':0.5},"
+                + "'status':{'enum':['open','closed']},"
+                + "'version':{'const':2}}}");
+
+        assertThat(schema.validate(json("{'code':'ABC','price':9.5,'status':'open','version':2.0}"))).isEmpty();
+        assertThat(schema.validate(json("{'code':'ab','price':0,'status':'gone','version':3}"))).containsExactly(
+                "/code: length 2 is shorter than 3",
+                "/code: 'ab' does not match ^[A-Z]{3}$",
+                "/price: 0 violates exclusiveMinimum 0",
+                "/status: value gone is not one of [open, closed]",
+                "/version: expected 2 but was 3");
+        assertThat(schema.validate(json("{'price':10.25}"))).containsExactly(
+                "/price: 10.25 violates maximum 10",
+                "/price: 10.25 is not a multiple of 0.5");
+    }
+
+    @Test
+    void checksAdditionalAndPatternProperties() {
+        JsonSchema closed = schema("{'properties':{'id':{}},'patternProperties':{'^x-':{'type':'string'}},"
+                + "'additionalProperties':false}");
+        JsonSchema typed = schema("{'properties':{'id':{}},'additionalProperties':{'type':'number'}}");
+
+        assertThat(closed.validate(json("{'id':1,'x-trace':'t'}"))).isEmpty();
+        assertThat(closed.validate(json("{'id':1,'x-trace':2,'extra':true}"))).containsExactly(
+                "/x-trace: expected type string but was integer",
+                "/: unexpected property 'extra'");
+        assertThat(typed.validate(json("{'id':'a','count':'b'}"))).containsExactly(
+                "/count: expected type number but was string");
+    }
+
+    @Test
+    void combinesSchemas() {
+        JsonSchema schema = schema("{'properties':{"
+                + "'any':{'anyOf':[{'type':'string'},{'type':'integer'}]},"
+                + "'one':{'oneOf':[{'type':'number'},{'type':'integer'}]},"
+                + "'all':{'allOf':[{'minimum':1},{'maximum':3}]},"
+                + "'not':{'not':{'type':'null'}}}}");
+
+        assertThat(schema.validate(json("{'any':'a','one':1.5,'all':2,'not':0}"))).isEmpty();
+        assertThat(schema.validate(json("{'any':true,'one':1,'all':4,'not':null}"))).containsExactly(
+                "/any: does not match any schema of anyOf",
+                "/one: matches 2 schemas of oneOf instead of exactly one",
+                "/all: 4 violates maximum 3",
+                "/not: must not match the schema of not");
+    }
+
+    @Test
+    void resolvesRecursiveLocalReferences() {
+        JsonSchema schema = schema("{'$ref':'#/definitions/node','definitions':{'node':{'type':'object',"
+                + "'required':['name'],'properties':{'children':{'type':'array','items':{'$ref':'#/definitions/node'}}}}}}");
+
+        assertThat(schema.validate(json("{'name':'root','children':[{'name':'a','children':[]}]}"))).isEmpty();
+        assertThat(schema.validate(json("{'name':'root','children':[{'children':[{}]}]}"))).containsExactly(
+                "/children/0: missing required property 'name'",
+                "/children/0/children/0: missing required property 'name'");
+    }
+
+    @Test
+    void escapesPointerTokens() {
+        JsonSchema schema = schema("{'additionalProperties':{'type':'string'}}");
+
+        assertThat(schema.validate(json("{'a/b~c':1}"))).containsExactly("/a~1b~0c: expected type string but was integer");
+    }
+
+    @Test
+    void rejectsUnsupportedReferencesAndTypes() {
+        assertThatThrownBy(() -> schema("{'$ref':'other.json#/node'}"))
+                .isInstanceOf(TestException.ConfigurationException.class);
+        assertThatThrownBy(() -> schema("{'$ref':'#/definitions/missing'}"))
+                .isInstanceOf(TestException.ConfigurationException.class)
+                .hasMessageContaining("#/definitions/missing");
+        assertThatThrownBy(() -> schema("{'type':'date'}").validate("2024-01-01"))
+                .isInstanceOf(TestException.ConfigurationException.class);
+    }
+
+    @Test
+    void booleanSchemas() {
+        assertThat(JsonSchema.compile(true).validate(json("{'anything':1}"))).isEmpty();
+        assertThat(JsonSchema.compile(false).validate(1)).containsExactly("/: no value is allowed here");
+    }
+
+    private static JsonSchema schema(String json) {
+        return JsonSchema.compile(json(json));
+    }
+
+    // Single quotes keep the JSON in these tests readable
+    private static Object json(String json) {
+        try {
+            return objectMapper.readValue(json.replace('\'', '"'), Object.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
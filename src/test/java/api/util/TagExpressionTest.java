@@ -0,0 +1,87 @@
+package api.util;
+
+import api.TestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TagExpressionTest {
+
+    @Test
+    void notBindsTighterThanAndWhichBindsTighterThanOr() {
+        assertThat(TagExpression.parse("a or b and not c")).hasToString("(a or (b and not c))");
+        assertThat(TagExpression.parse("not a and b")).hasToString("(not a and b)");
+        assertThat(TagExpression.parse("a and b or c and d")).hasToString("((a and b) or (c and d))");
+    }
+
+    @Test
+    void parenthesesOverridePrecedence() {
+        TagExpression expression = TagExpression.parse("(a or b) and not (slow or flaky)");
+
+        assertThat(expression).hasToString("((a or b) and not (slow or flaky))");
+        assertThat(expression.matches(Arrays.asList("b"))).isTrue();
+        assertThat(expression.matches(Arrays.asList("a", "flaky"))).isFalse();
+        assertThat(expression.matches(Arrays.asList("slow"))).isFalse();
+    }
+
+    @Test
+    void keywordsAreCaseInsensitiveAndNotCanRepeat() {
+        assertThat(TagExpression.parse("a AND Not b OR c")).hasToString("((a and not b) or c)");
+        assertThat(TagExpression.parse("not not a").matches(Collections.singletonList("a"))).isTrue();
+    }
+
+    @Test
+    void commasMeanAndForTheLegacyForm() {
+        TagExpression expression = TagExpression.parse("AddItem,positive");
+
+        assertThat(expression).hasToString("(AddItem and positive)");
+        assertThat(expression.matches(Arrays.asList("AddItem", "positive", "smoke"))).isTrue();
+        assertThat(expression.matches(Collections.singletonList("AddItem"))).isFalse();
+        assertThat(TagExpression.parse("a, b or c")).hasToString("((a and b) or c)");
+    }
+
+    @Test
+    void quotedTagsMayContainSpacesAndKeywords() {
+        TagExpression expression = TagExpression.parse("'smoke test' and not \"or\"");
+
+        assertThat(expression.matches(Arrays.asList("smoke test", "api test"))).isTrue();
+        assertThat(expression.matches(Arrays.asList("smoke test", "or"))).isFalse();
+        assertThat(expression.matches(Collections.singletonList("smoke"))).isFalse();
+        assertThat(TagExpression.parse("'(x)'").matches(Collections.singletonList("(x)"))).isTrue();
+    }
+
+    @Test
+    void leadingAtSignIsIgnoredOnBothSides() {
+        assertThat(TagExpression.parse("@smoke").matches(Collections.singletonList("smoke"))).isTrue();
+        assertThat(TagExpression.parse("smoke").matches(Collections.singletonList("@smoke"))).isTrue();
+    }
+
+    @Test
+    void emptyExpressionMatchesEverything() {
+        assertThat(TagExpression.parse(null).matches(Collections.emptyList())).isTrue();
+        assertThat(TagExpression.parse("  ").matches(Collections.singletonList("a"))).isTrue();
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertThatThrownBy(() -> TagExpression.parse("a and"))
+                .isInstanceOf(TestException.ConfigurationException.class)
+                .hasMessageContaining("unexpected end");
+        assertThatThrownBy(() -> TagExpression.parse("(a or b"))
+                .isInstanceOf(TestException.ConfigurationException.class)
+                .hasMessageContaining("missing ')'");
+        assertThatThrownBy(() -> TagExpression.parse("a b"))
+                .isInstanceOf(TestException.ConfigurationException.class)
+                .hasMessageContaining("unexpected 'b'");
+        assertThatThrownBy(() -> TagExpression.parse("and a"))
+                .isInstanceOf(TestException.ConfigurationException.class)
+                .hasMessageContaining("expected a tag");
+        assertThatThrownBy(() -> TagExpression.parse("'smoke test"))
+                .isInstanceOf(TestException.ConfigurationException.class)
+                .hasMessageContaining("unclosed quote");
+    }
+}
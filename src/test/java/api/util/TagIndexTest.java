@@ -0,0 +1,79 @@
+package api.util;
+
+import api.model.APITestCase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagIndexTest {
+    private final List<APITestCase> testCases = Arrays.asList(
+            testCase("Summary01", "smoke test", "@api test"),
+            testCase("Filters01", "smoke test", "slow"),
+            testCase("AddItem01", "AddItem", "positive"),
+            testCase("AddItem02", "AddItem", "negative", "flaky"),
+            testCase("Untagged01"));
+    private final TagIndex tagIndex = new TagIndex(testCases);
+
+    @Test
+    void indexesNormalizedTags() {
+        assertThat(tagIndex.size()).isEqualTo(5);
+        assertThat(tagIndex.getTags()).containsExactlyInAnyOrder(
+                "smoke test", "api test", "slow", "AddItem", "positive", "negative", "flaky");
+    }
+
+    @Test
+    void selectsInCatalogOrder() {
+        assertThat(select("AddItem or 'smoke test'"))
+                .containsExactly("Summary01", "Filters01", "AddItem01", "AddItem02");
+        assertThat(select("'smoke test' and not slow")).containsExactly("Summary01");
+        assertThat(select("'@api test'")).containsExactly("Summary01");
+        assertThat(select("AddItem,positive")).containsExactly("AddItem01");
+    }
+
+    @Test
+    void notAndEmptyExpressionsCoverUntaggedCases() {
+        assertThat(select("not (slow or flaky)")).containsExactly("Summary01", "AddItem01", "Untagged01");
+        assertThat(select("")).hasSize(5);
+        assertThat(select("unknown")).isEmpty();
+        assertThat(select("not unknown")).hasSize(5);
+    }
+
+    @Test
+    void agreesWithMatchingEachCase() {
+        for (String expression : Arrays.asList("'smoke test'", "AddItem and not (negative or slow)",
+                "not AddItem or flaky", "(positive or negative) and AddItem", "not not slow")) {
+            TagExpression parsed = TagExpression.parse(expression);
+            List<String> expected = new ArrayList<>();
+            for (APITestCase testCase : testCases) {
+                if (parsed.matches(testCase.getTags())) {
+                    expected.add(testCase.getTCID());
+                }
+            }
+
+            assertThat(select(parsed)).as(expression).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private List<String> select(String expression) {
+        return select(TagExpression.parse(expression));
+    }
+
+    private List<String> select(TagExpression expression) {
+        List<String> tcids = new ArrayList<>();
+        for (APITestCase testCase : tagIndex.select(expression)) {
+            tcids.add(testCase.getTCID());
+        }
+        return tcids;
+    }
+
+    private static APITestCase testCase(String tcid, String... tags) {
+        APITestCase testCase = new APITestCase();
+        testCase.setTCID(tcid);
+        testCase.setTags(Arrays.asList(tags));
+        return testCase;
+    }
+}
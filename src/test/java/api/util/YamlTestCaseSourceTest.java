@@ -0,0 +1,82 @@
+package api.util;
+
+import api.model.APITestCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YamlTestCaseSourceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsOneCasePerDocument() throws IOException {
+        List<APITestCase> testCases = read("TCID: Summary01\n"
+                + "Name: Summary\n"
+                + "Endpoint Key: summary\n"
+                + "Run: Y\n"
+                + "Exp Status: 200\n"
+                + "Tags: [smoke test, api test]\n"
+                + "Exp Result:\n"
+                + "  - Summary01.count=10\n"
+                + "---\n"
+                + "TCID: Filters01\n"
+                + "Name: Filters\n"
+                + "endpointKey: get_data\n"
+                + "Run: true\n"
+                + "Exp Status: 200\n");
+
+        assertThat(testCases).extracting(APITestCase::getTCID).containsExactly("Summary01", "Filters01");
+        APITestCase summary = testCases.get(0);
+        assertThat(summary.getTags()).containsExactly("smoke test", "api test");
+        assertThat(summary.getExpResult()).containsExactly("Summary01.count=10");
+        assertThat(summary.isRun()).isTrue();
+        assertThat(testCases.get(1).getEndpointKey()).isEqualTo("get_data");
+        assertThat(testCases.get(1).isRun()).isTrue();
+    }
+
+    @Test
+    void readsListsOfCasesAndSkipsEmptyDocuments() throws IOException {
+        List<APITestCase> testCases = read("- TCID: Add01\n"
+                + "  Name: Add\n"
+                + "  Endpoint Key: add_item\n"
+                + "  Exp Status: 201\n"
+                + "- TCID: Delete01\n"
+                + "  Name: Delete\n"
+                + "  Endpoint Key: delete_item\n"
+                + "  Exp Status: 204\n"
+                + "---\n"
+                + "---\n"
+                + "TCID: Invalid01\n"
+                + "Name: Missing status\n"
+                + "Endpoint Key: summary\n");
+
+        assertThat(testCases).extracting(APITestCase::getTCID).containsExactly("Add01", "Delete01");
+        assertThat(testCases).extracting(APITestCase::getExpStatus).containsExactly(201, 204);
+    }
+
+    @Test
+    void rejectsDocumentsThatAreNotCases() throws IOException {
+        assertThatThrownBy(() -> read("- just a string\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("just a string");
+    }
+
+    private List<APITestCase> read(String content) throws IOException {
+        Path file = directory.resolve("cases.yaml");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        try (Stream<APITestCase> testCases = new YamlTestCaseSource(file).stream()) {
+            return testCases.collect(Collectors.toList());
+        }
+    }
+}